@@ -47,6 +47,7 @@ import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+import cpw.mods.fml.common.eventhandler.AsyncEventBus;
 import cpw.mods.fml.common.eventhandler.EventBus;
 import cpw.mods.fml.common.gameevent.InputEvent;
 import cpw.mods.fml.common.gameevent.PlayerEvent;
@@ -87,10 +88,11 @@ public class FMLCommonHandler
     private List<ICrashCallable> crashCallables = Lists.newArrayList(Loader.instance().getCallableCrashInformation());
     private Set<SaveHandler> handlerSet = Sets.newSetFromMap(new MapMaker().weakKeys().<SaveHandler,Boolean>makeMap());
     private WeakReference<SaveHandler> handlerToCheck;
-    private EventBus eventBus = new EventBus();
+    private EventBus eventBus = new AsyncEventBus("FML", 1, 1024);
     private volatile CountDownLatch exitLatch = null;
     /**
-     * The FML event bus. Subscribe here for FML related events
+     * The FML event bus. Subscribe here for FML related events, listeners may ask for async delivery,
+     * see {@link AsyncEventBus}
      *
      * @return the event bus
      */
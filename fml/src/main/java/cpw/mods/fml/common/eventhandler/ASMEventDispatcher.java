@@ -0,0 +1,244 @@
+package cpw.mods.fml.common.eventhandler;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.logging.log4j.Level;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Generates a single listener class that invokes every entry of a built listener
+ * array in order. Subscriber methods are called directly from the generated code
+ * and the cancellation checks are folded in, so the only virtual call left on the
+ * post path is the one into the dispatcher itself.
+ *
+ * Dispatchers are rebuilt whenever the owning ListenerList is rebuilt, each one is
+ * defined in its own class loader so stale dispatchers can be collected.
+ */
+public class ASMEventDispatcher
+{
+    private static final boolean ENABLED = !Boolean.parseBoolean(System.getProperty("fml.disableEventDispatcher", "false"));
+    private static final boolean GETCONTEXT = Boolean.parseBoolean(System.getProperty("fml.LogContext", "false"));
+    private static final String HANDLER_DESC = Type.getInternalName(IEventListener.class);
+    private static final String HANDLER_FUNC_DESC = Type.getMethodDescriptor(IEventListener.class.getDeclaredMethods()[0]);
+    private static final String EVENT_DESC = Type.getInternalName(Event.class);
+    private static final String PRIORITY_DESC = Type.getInternalName(EventPriority.class);
+    private static final String FAILURE_DESC = Type.getInternalName(DispatchFailure.class);
+    private static int IDs = 0;
+
+    /**
+     * Thrown by generated dispatchers when a listener fails, carrying the index of
+     * the failing entry in the listener array the dispatcher was built from.
+     */
+    public static class DispatchFailure extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+        public final int index;
+
+        public DispatchFailure(int index, Throwable cause)
+        {
+            super(cause);
+            this.index = index;
+        }
+    }
+
+    /**
+     * Builds a dispatcher for the given listeners.
+     *
+     * @param listeners The fully built listener array, priority markers included
+     * @return The dispatcher, or null if the listener array should be walked directly
+     */
+    public static IEventListener build(IEventListener[] listeners)
+    {
+        if (!ENABLED || GETCONTEXT)
+        {
+            return null;
+        }
+        try
+        {
+            return create(listeners);
+        }
+        catch (Throwable t)
+        {
+            FMLLog.log(Level.WARN, t, "Failed to generate event dispatcher, falling back to listener iteration");
+            return null;
+        }
+    }
+
+    private static IEventListener create(IEventListener[] listeners) throws Exception
+    {
+        String name = getUniqueName();
+        String desc = name.replace('.', '/');
+        Object[] fields = new Object[listeners.length];
+        boolean checkCancel = false;
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+
+        cw.visit(V1_6, ACC_PUBLIC | ACC_SUPER, desc, null, "java/lang/Object", new String[]{ HANDLER_DESC });
+        cw.visitSource(".dynamic", null);
+
+        for (int x = 0; x < listeners.length; x++)
+        {
+            IEventListener listener = listeners[x];
+            if (listener instanceof EventPriority)
+            {
+                continue;
+            }
+            if (listener instanceof ASMEventHandler)
+            {
+                ASMEventHandler handler = (ASMEventHandler)listener;
+                checkCancel |= !handler.receiveCanceled();
+                if (Modifier.isStatic(handler.getMethod().getModifiers()))
+                {
+                    continue;
+                }
+                fields[x] = handler.getTarget();
+                cw.visitField(ACC_PRIVATE | ACC_FINAL, "l" + x, Type.getDescriptor(handler.getMethod().getDeclaringClass()), null, null).visitEnd();
+            }
+            else
+            {
+                fields[x] = listener;
+                cw.visitField(ACC_PRIVATE | ACC_FINAL, "l" + x, "L" + HANDLER_DESC + ";", null, null).visitEnd();
+            }
+        }
+
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", "([Ljava/lang/Object;)V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+            for (int x = 0; x < listeners.length; x++)
+            {
+                if (fields[x] == null)
+                {
+                    continue;
+                }
+                String type = listeners[x] instanceof ASMEventHandler ? Type.getInternalName(((ASMEventHandler)listeners[x]).getMethod().getDeclaringClass()) : HANDLER_DESC;
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitLdcInsn(x);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, type);
+                mv.visitFieldInsn(PUTFIELD, desc, "l" + x, "L" + type + ";");
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            // locals: 0 this, 1 event, 2 isCancelable, 3 current index, 4 caught throwable
+            mv = cw.visitMethod(ACC_PUBLIC, "invoke", HANDLER_FUNC_DESC, null, null);
+            mv.visitCode();
+            Label start = new Label();
+            Label end = new Label();
+            Label fail = new Label();
+            mv.visitTryCatchBlock(start, end, fail, "java/lang/Throwable");
+            if (checkCancel)
+            {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEVIRTUAL, EVENT_DESC, "isCancelable", "()Z", false);
+                mv.visitVarInsn(ISTORE, 2);
+            }
+            mv.visitInsn(ICONST_0);
+            mv.visitVarInsn(ISTORE, 3);
+            mv.visitLabel(start);
+            for (int x = 0; x < listeners.length; x++)
+            {
+                IEventListener listener = listeners[x];
+                mv.visitLdcInsn(x);
+                mv.visitVarInsn(ISTORE, 3);
+                if (listener instanceof EventPriority)
+                {
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitFieldInsn(GETSTATIC, PRIORITY_DESC, ((EventPriority)listener).name(), "L" + PRIORITY_DESC + ";");
+                    mv.visitMethodInsn(INVOKEVIRTUAL, EVENT_DESC, "setPhase", "(L" + PRIORITY_DESC + ";)V", false);
+                }
+                else if (listener instanceof ASMEventHandler)
+                {
+                    ASMEventHandler handler = (ASMEventHandler)listener;
+                    Method callback = handler.getMethod();
+                    String instType = Type.getInternalName(callback.getDeclaringClass());
+                    Label skip = new Label();
+                    if (!handler.receiveCanceled())
+                    {
+                        Label call = new Label();
+                        mv.visitVarInsn(ILOAD, 2);
+                        mv.visitJumpInsn(IFEQ, call);
+                        mv.visitVarInsn(ALOAD, 1);
+                        mv.visitMethodInsn(INVOKEVIRTUAL, EVENT_DESC, "isCanceled", "()Z", false);
+                        mv.visitJumpInsn(IFNE, skip);
+                        mv.visitLabel(call);
+                    }
+                    if (Modifier.isStatic(callback.getModifiers()))
+                    {
+                        mv.visitVarInsn(ALOAD, 1);
+                        mv.visitTypeInsn(CHECKCAST, Type.getInternalName(callback.getParameterTypes()[0]));
+                        mv.visitMethodInsn(INVOKESTATIC, instType, callback.getName(), Type.getMethodDescriptor(callback), false);
+                    }
+                    else
+                    {
+                        mv.visitVarInsn(ALOAD, 0);
+                        mv.visitFieldInsn(GETFIELD, desc, "l" + x, "L" + instType + ";");
+                        mv.visitVarInsn(ALOAD, 1);
+                        mv.visitTypeInsn(CHECKCAST, Type.getInternalName(callback.getParameterTypes()[0]));
+                        mv.visitMethodInsn(INVOKEVIRTUAL, instType, callback.getName(), Type.getMethodDescriptor(callback), false);
+                    }
+                    if (callback.getReturnType() != void.class)
+                    {
+                        mv.visitInsn(callback.getReturnType() == long.class || callback.getReturnType() == double.class ? POP2 : POP);
+                    }
+                    mv.visitLabel(skip);
+                }
+                else
+                {
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, desc, "l" + x, "L" + HANDLER_DESC + ";");
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitMethodInsn(INVOKEINTERFACE, HANDLER_DESC, "invoke", HANDLER_FUNC_DESC, true);
+                }
+            }
+            mv.visitLabel(end);
+            mv.visitInsn(RETURN);
+            mv.visitLabel(fail);
+            mv.visitVarInsn(ASTORE, 4);
+            mv.visitTypeInsn(NEW, FAILURE_DESC);
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ILOAD, 3);
+            mv.visitVarInsn(ALOAD, 4);
+            mv.visitMethodInsn(INVOKESPECIAL, FAILURE_DESC, "<init>", "(ILjava/lang/Throwable;)V", false);
+            mv.visitInsn(ATHROW);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        Class<?> cls = new ASMClassLoader().define(name, cw.toByteArray());
+        return (IEventListener)cls.getConstructor(Object[].class).newInstance(new Object[]{ fields });
+    }
+
+    private static synchronized String getUniqueName()
+    {
+        return String.format("%s_%d", ASMEventDispatcher.class.getName(), IDs++);
+    }
+
+    private static class ASMClassLoader extends ClassLoader
+    {
+        private ASMClassLoader()
+        {
+            super(ASMClassLoader.class.getClassLoader());
+        }
+
+        public Class<?> define(String name, byte[] data)
+        {
+            return defineClass(name, data, 0, data.length);
+        }
+    }
+}
@@ -24,6 +24,8 @@ public class ASMEventHandler implements IEventListener
     private static final boolean GETCONTEXT = Boolean.parseBoolean(System.getProperty("fml.LogContext", "false"));
 
     private final IEventListener handler;
+    private final Object target;
+    private final Method method;
     private final SubscribeEvent subInfo;
     private ModContainer owner;
     private String readable;
@@ -31,7 +33,14 @@ public class ASMEventHandler implements IEventListener
     public ASMEventHandler(Object target, Method method, ModContainer owner) throws Exception
     {
         this.owner = owner;
-        handler = (IEventListener)createWrapper(method).getConstructor(Object.class).newInstance(target);
+        this.target = target;
+        this.method = method;
+        Class<?> wrapper;
+        synchronized (cache)
+        {
+            wrapper = createWrapper(method);
+        }
+        handler = (IEventListener)wrapper.getConstructor(Object.class).newInstance(target);
         subInfo = method.getAnnotation(SubscribeEvent.class);
         readable = "ASM: " + target + " " + method.getName() + Type.getMethodDescriptor(method);
     }
@@ -63,6 +72,31 @@ public class ASMEventHandler implements IEventListener
         return subInfo.priority();
     }
 
+    public boolean receiveCanceled()
+    {
+        return subInfo.receiveCanceled();
+    }
+
+    public ModContainer getOwner()
+    {
+        return owner;
+    }
+
+    public boolean isAsync()
+    {
+        return subInfo.async();
+    }
+
+    public Object getTarget()
+    {
+        return target;
+    }
+
+    public Method getMethod()
+    {
+        return method;
+    }
+
     public Class<?> createWrapper(Method callback)
     {
         if (cache.containsKey(callback))
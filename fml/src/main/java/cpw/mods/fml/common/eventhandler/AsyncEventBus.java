@@ -0,0 +1,308 @@
+package cpw.mods.fml.common.eventhandler;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.apache.logging.log4j.Level;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * EventBus that can run listeners off the posting thread.
+ *
+ * Listeners annotated with {@code @SubscribeEvent(async = true)} are delivered on the
+ * bus executor, everything else behaves exactly as on a normal EventBus. Async delivery
+ * only applies to events that are neither cancelable nor carry a result, as the poster
+ * never looks at what an async listener did, and that async listeners can't see change:
+ * event classes marked {@link Event.Immutable} are handed over as they are, events
+ * implementing {@link Event.Snapshot} are copied once the sync listeners ran and the copy
+ * is handed over. For any other event async listeners are invoked inline with the rest.
+ *
+ * Async deliveries are handed to the executor once the synchronous listeners for the
+ * post have all run, so async listeners see the event as the sync phase left it. Each
+ * listener has its own bounded queue and is never run concurrently with itself, which
+ * keeps per-listener ordering. Events that would overflow a listener's queue are
+ * dropped and counted, see {@link #getDroppedCount()}.
+ */
+public class AsyncEventBus extends EventBus
+{
+    private static final int DRAIN_BATCH = 64;
+    private static final ConcurrentHashMap<Class<?>, Mode> modes = new ConcurrentHashMap<Class<?>, Mode>();
+
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final AtomicLong dropped = new AtomicLong();
+    // Set once the first async listener registers, posts skip the async bookkeeping until then
+    private volatile boolean hasAsyncListeners;
+    private final ThreadLocal<ArrayList<Delivery>> deferred = new ThreadLocal<ArrayList<Delivery>>()
+    {
+        @Override
+        protected ArrayList<Delivery> initialValue()
+        {
+            return new ArrayList<Delivery>();
+        }
+    };
+
+    public AsyncEventBus(String name, int threads, int queueCapacity)
+    {
+        this(Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat(name + " Event Executor #%d").setDaemon(true).build()), queueCapacity);
+    }
+
+    public AsyncEventBus(@Nonnull ExecutorService executor, int queueCapacity)
+    {
+        super();
+        Preconditions.checkArgument(executor != null, "AsyncEventBus executor can not be null");
+        Preconditions.checkArgument(queueCapacity > 0, "AsyncEventBus queue capacity must be positive");
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public AsyncEventBus(@Nonnull IEventExceptionHandler handler, @Nonnull ExecutorService executor, int queueCapacity)
+    {
+        this(executor, queueCapacity);
+        Preconditions.checkArgument(handler != null, "EventBus exception handler can not be null");
+        exceptionHandler = handler;
+    }
+
+    @Override
+    protected IEventListener wrapListener(ASMEventHandler handler)
+    {
+        if (!handler.isAsync())
+        {
+            return handler;
+        }
+        hasAsyncListeners = true;
+        return new AsyncListener(handler);
+    }
+
+    @Override
+    public boolean post(Event event)
+    {
+        if (!hasAsyncListeners)
+        {
+            return super.post(event);
+        }
+
+        ArrayList<Delivery> pending = deferred.get();
+        // Nested posts from sync listeners flush and trim their own deliveries before returning,
+        // so everything past the mark belongs to this post, in listener order.
+        int mark = pending.size();
+        try
+        {
+            boolean ret = super.post(event);
+            Event delivered = null;
+            for (int x = mark; x < pending.size(); x++)
+            {
+                Delivery delivery = pending.get(x);
+                if (delivered == null)
+                {
+                    // One copy for all async listeners of the post, nobody can change it
+                    delivered = delivery.mode == Mode.SNAPSHOT ? ((Event.Snapshot)event).snapshot() : event;
+                }
+                delivery.listener.submit(delivered);
+            }
+            return ret;
+        }
+        finally
+        {
+            while (pending.size() > mark)
+            {
+                pending.remove(pending.size() - 1);
+            }
+        }
+    }
+
+    private enum Mode
+    {
+        /** Invoked on the posting thread */
+        INLINE,
+        /** The posted event is handed over */
+        SHARED,
+        /** A snapshot of the posted event is handed over */
+        SNAPSHOT
+    }
+
+    private static Mode getMode(Event event)
+    {
+        Class<?> cls = event.getClass();
+        Mode ret = modes.get(cls);
+        if (ret == null)
+        {
+            if (event.isCancelable() || event.hasResult())
+            {
+                ret = Mode.INLINE;
+            }
+            else if (cls.isAnnotationPresent(Event.Immutable.class))
+            {
+                ret = Mode.SHARED;
+            }
+            else
+            {
+                ret = event instanceof Event.Snapshot ? Mode.SNAPSHOT : Mode.INLINE;
+            }
+            modes.put(cls, ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Total number of async deliveries dropped because a listener's queue was full.
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Stops accepting async deliveries and waits for queued ones to finish.
+     *
+     * @return True if all queued deliveries completed within the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private static class Delivery
+    {
+        private final AsyncListener listener;
+        private final Mode mode;
+
+        private Delivery(AsyncListener listener, Mode mode)
+        {
+            this.listener = listener;
+            this.mode = mode;
+        }
+    }
+
+    private class AsyncListener implements IEventListener, Runnable
+    {
+        private final ASMEventHandler handler;
+        private final Queue<Event> queue = new ConcurrentLinkedQueue<Event>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+
+        private AsyncListener(ASMEventHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public void invoke(Event event)
+        {
+            Mode mode = getMode(event);
+            if (mode == Mode.INLINE)
+            {
+                handler.invoke(event);
+            }
+            else
+            {
+                deferred.get().add(new Delivery(this, mode));
+            }
+        }
+
+        private void submit(Event event)
+        {
+            if (size.incrementAndGet() > queueCapacity)
+            {
+                size.decrementAndGet();
+                drop(event);
+                return;
+            }
+            queue.add(event);
+            schedule();
+        }
+
+        private void schedule()
+        {
+            if (scheduled.compareAndSet(false, true))
+            {
+                try
+                {
+                    executor.execute(this);
+                }
+                catch (RejectedExecutionException e)
+                {
+                    scheduled.set(false);
+                    Event event;
+                    while ((event = queue.poll()) != null)
+                    {
+                        size.decrementAndGet();
+                        drop(event);
+                    }
+                }
+            }
+        }
+
+        private void drop(Event event)
+        {
+            AsyncEventBus.this.dropped.incrementAndGet();
+            if (dropped.getAndIncrement() % 1000 == 0)
+            {
+                FMLLog.log(Level.WARN, "Async listener %s is falling behind, %d events dropped so far (latest %s)", handler, dropped.get(), event);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            while (true)
+            {
+                for (int x = 0; x < DRAIN_BATCH; x++)
+                {
+                    Event event = queue.poll();
+                    if (event == null)
+                    {
+                        break;
+                    }
+                    size.decrementAndGet();
+                    try
+                    {
+                        handler.invoke(event);
+                    }
+                    catch (Throwable throwable)
+                    {
+                        exceptionHandler.handleException(AsyncEventBus.this, event, new IEventListener[]{ handler }, 0, throwable);
+                    }
+                }
+                scheduled.set(false);
+                if (queue.isEmpty() || !scheduled.compareAndSet(false, true))
+                {
+                    return;
+                }
+                // Reschedule rather than loop so one busy listener can't starve the others,
+                // once the bus is shutting down finish the backlog on this thread instead.
+                try
+                {
+                    executor.execute(this);
+                    return;
+                }
+                catch (RejectedExecutionException e)
+                {
+                    ;
+                }
+            }
+        }
+
+        public String toString()
+        {
+            return "Async " + handler;
+        }
+    }
+}
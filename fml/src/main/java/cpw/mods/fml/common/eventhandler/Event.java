@@ -21,6 +21,24 @@ public class Event
     @Target(value = TYPE)
     public @interface HasResult{}
 
+    /**
+     * Marks an event class whose state never changes once it is posted, so it can be handed to
+     * async listeners, see {@link AsyncEventBus}. Not inherited, subclasses have to be marked again.
+     */
+    @Retention(value = RUNTIME)
+    @Target(value = TYPE)
+    public @interface Immutable{}
+
+    /**
+     * Implemented by events that can copy themselves for async listeners, see {@link AsyncEventBus}.
+     * The copy is taken once the sync listeners ran and must not share any state the poster can still
+     * change.
+     */
+    public interface Snapshot
+    {
+        Event snapshot();
+    }
+
     public enum Result
     {
         DENY,
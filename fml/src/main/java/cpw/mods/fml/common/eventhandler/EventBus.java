@@ -23,11 +23,12 @@ import cpw.mods.fml.common.ModContainer;
 public class EventBus implements IEventExceptionHandler
 {
     private static int maxID = 0;
+    private static final ConcurrentHashMap<Class<?>, ListenerList> eventLists = new ConcurrentHashMap<Class<?>, ListenerList>();
 
     private ConcurrentHashMap<Object, ArrayList<IEventListener>> listeners = new ConcurrentHashMap<Object, ArrayList<IEventListener>>();
     private Map<Object,ModContainer> listenerOwners = new MapMaker().weakKeys().weakValues().makeMap();
     private final int busID = maxID++;
-    private IEventExceptionHandler exceptionHandler;
+    protected IEventExceptionHandler exceptionHandler;
 
     public EventBus()
     {
@@ -42,7 +43,7 @@ public class EventBus implements IEventExceptionHandler
         exceptionHandler = handler;
     }
 
-    public void register(Object target)
+    public synchronized void register(Object target)
     {
         if (listeners.containsKey(target))
         {
@@ -101,8 +102,9 @@ public class EventBus implements IEventExceptionHandler
             Constructor<?> ctr = eventType.getConstructor();
             ctr.setAccessible(true);
             Event event = (Event)ctr.newInstance();
-            ASMEventHandler listener = new ASMEventHandler(target, method, owner);
-            event.getListenerList().register(busID, listener.getPriority(), listener);
+            ASMEventHandler handler = new ASMEventHandler(target, method, owner);
+            IEventListener listener = wrapListener(handler);
+            event.getListenerList().register(busID, handler.getPriority(), listener);
 
             ArrayList<IEventListener> others = listeners.get(target);
             if (others == null)
@@ -118,7 +120,22 @@ public class EventBus implements IEventExceptionHandler
         }
     }
 
-    public void unregister(Object object)
+    /**
+     * Allows subclasses to change how a subscriber method is invoked.
+     *
+     * @param handler The handler generated for the subscriber method
+     * @return The listener to register in place of the handler
+     */
+    protected IEventListener wrapListener(ASMEventHandler handler)
+    {
+        if (handler.isAsync())
+        {
+            FMLLog.log(Level.WARN, "Listener %s asks for async delivery, but is registered on a bus that can't deliver events asynchronously. It will be invoked on the posting thread.", handler);
+        }
+        return handler;
+    }
+
+    public synchronized void unregister(Object object)
     {
         ArrayList<IEventListener> list = listeners.remove(object);
         if (list == null)
@@ -129,9 +146,60 @@ public class EventBus implements IEventExceptionHandler
         }
     }
 
+    /**
+     * Checks if anything on this bus is listening for the specified event, so callers
+     * can avoid constructing events nobody will see.
+     *
+     * The answer tracks the event's ListenerList and so is always current, posting
+     * an event when this returns false has no observable effect.
+     *
+     * @param eventType The event class that would be posted
+     * @return True if posting an event of this type would invoke any listener
+     */
+    public boolean hasListeners(Class<? extends Event> eventType)
+    {
+        ListenerList list = eventLists.get(eventType);
+        if (list == null)
+        {
+            try
+            {
+                Constructor<? extends Event> ctr = eventType.getConstructor();
+                ctr.setAccessible(true);
+                list = ctr.newInstance().getListenerList();
+            }
+            catch (Exception e)
+            {
+                throw new IllegalArgumentException("Unable to determine listener list for event " + eventType.getName(), e);
+            }
+            eventLists.put(eventType, list);
+        }
+        return list.hasListeners(busID);
+    }
+
     public boolean post(Event event)
     {
-        IEventListener[] listeners = event.getListenerList().getListeners(busID);
+        if (EventProfiler.enabled)
+        {
+            return postProfiled(event);
+        }
+
+        ListenerList list = event.getListenerList();
+        IEventListener dispatcher = list.getDispatcher(busID);
+        if (dispatcher != null)
+        {
+            try
+            {
+                dispatcher.invoke(event);
+            }
+            catch (ASMEventDispatcher.DispatchFailure failure)
+            {
+                exceptionHandler.handleException(this, event, list.getListeners(busID), failure.index, failure.getCause());
+                Throwables.propagate(failure.getCause());
+            }
+            return (event.isCancelable() ? event.isCanceled() : false);
+        }
+
+        IEventListener[] listeners = list.getListeners(busID);
         int index = 0;
         try
         {
@@ -148,6 +216,41 @@ public class EventBus implements IEventExceptionHandler
         return (event.isCancelable() ? event.isCanceled() : false);
     }
 
+    private boolean postProfiled(Event event)
+    {
+        IEventListener[] listeners = event.getListenerList().getListeners(busID);
+        int index = 0;
+        try
+        {
+            for (; index < listeners.length; index++)
+            {
+                IEventListener listener = listeners[index];
+                if (listener instanceof EventPriority)
+                {
+                    listener.invoke(event);
+                    continue;
+                }
+                long bytes = EventProfiler.allocatedBytes();
+                long start = System.nanoTime();
+                try
+                {
+                    listener.invoke(event);
+                }
+                finally
+                {
+                    long time = System.nanoTime() - start;
+                    EventProfiler.record(busID, listener, time, EventProfiler.allocatedBytes() - bytes);
+                }
+            }
+        }
+        catch (Throwable throwable)
+        {
+            exceptionHandler.handleException(this, event, listeners, index, throwable);
+            Throwables.propagate(throwable);
+        }
+        return (event.isCancelable() ? event.isCanceled() : false);
+    }
+
     @Override
     public void handleException(EventBus bus, Event event, IEventListener[] listeners, int index, Throwable throwable)
     {
@@ -0,0 +1,282 @@
+package cpw.mods.fml.common.eventhandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cpw.mods.fml.common.FMLLog;
+import cpw.mods.fml.common.ModContainer;
+
+/**
+ * Opt-in profiler for event listeners.
+ *
+ * While enabled, {@link EventBus#post(Event)} walks the listener array instead of the
+ * generated dispatcher and records invocation count, time and, if the JVM supports it,
+ * allocated bytes for every listener. While disabled the only cost is the check of
+ * {@link #enabled} at the start of each post.
+ *
+ * Can be enabled at startup with -Dfml.eventProfiler=true.
+ */
+public class EventProfiler
+{
+    static volatile boolean enabled = false;
+
+    private static final ConcurrentHashMap<IEventListener, ListenerStats> stats = new ConcurrentHashMap<IEventListener, ListenerStats>();
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private static final boolean allocationsSupported = isAllocationTrackingSupported();
+    // Allocation tracking costs every thread of the JVM, so it is only on while profiling
+    private static volatile boolean trackAllocations = false;
+    // Whether start() turned allocation tracking on, so stop() only turns off what it turned on
+    private static boolean enabledAllocations = false;
+    private static ScheduledExecutorService dumpExecutor;
+    private static ScheduledFuture<?> dumpTask;
+
+    static
+    {
+        if (Boolean.parseBoolean(System.getProperty("fml.eventProfiler", "false")))
+        {
+            start();
+        }
+    }
+
+    public static class ListenerStats
+    {
+        public final int busID;
+        public final IEventListener listener;
+        public final ModContainer owner;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        private ListenerStats(int busID, IEventListener listener)
+        {
+            this.busID = busID;
+            this.listener = listener;
+            this.owner = listener instanceof ASMEventHandler ? ((ASMEventHandler)listener).getOwner() : null;
+        }
+
+        public long getCount()
+        {
+            return count.get();
+        }
+
+        public long getNanos()
+        {
+            return nanos.get();
+        }
+
+        /**
+         * @return Bytes allocated by the listener, or -1 if the JVM can not report allocations
+         */
+        public long getBytes()
+        {
+            return allocationsSupported ? bytes.get() : -1;
+        }
+
+        public String getOwnerName()
+        {
+            return owner == null ? "Unknown" : owner.getModId();
+        }
+    }
+
+    private static boolean isAllocationTrackingSupported()
+    {
+        try
+        {
+            return threadBean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean)threadBean).isThreadAllocatedMemorySupported();
+        }
+        catch (Throwable t)
+        {
+            return false;
+        }
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public static synchronized void start()
+    {
+        if (allocationsSupported && !trackAllocations)
+        {
+            try
+            {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)threadBean;
+                if (!bean.isThreadAllocatedMemoryEnabled())
+                {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                    enabledAllocations = true;
+                }
+                trackAllocations = true;
+            }
+            catch (Throwable t)
+            {
+                FMLLog.log(Level.DEBUG, t, "Failed to enable allocation tracking for the event profiler");
+            }
+        }
+        enabled = true;
+    }
+
+    public static synchronized void stop()
+    {
+        enabled = false;
+        trackAllocations = false;
+        if (enabledAllocations)
+        {
+            ((com.sun.management.ThreadMXBean)threadBean).setThreadAllocatedMemoryEnabled(false);
+            enabledAllocations = false;
+        }
+    }
+
+    public static void reset()
+    {
+        stats.clear();
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or 0 if not supported
+     */
+    static long allocatedBytes()
+    {
+        return trackAllocations ? ((com.sun.management.ThreadMXBean)threadBean).getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    static void record(int busID, IEventListener listener, long nanos, long bytes)
+    {
+        ListenerStats entry = stats.get(listener);
+        if (entry == null)
+        {
+            ListenerStats created = new ListenerStats(busID, listener);
+            entry = stats.putIfAbsent(listener, created);
+            if (entry == null)
+            {
+                entry = created;
+            }
+        }
+        entry.count.incrementAndGet();
+        entry.nanos.addAndGet(nanos);
+        // Negative if allocation tracking was turned off during the call
+        entry.bytes.addAndGet(Math.max(bytes, 0));
+    }
+
+    /**
+     * @return All recorded listeners, most expensive first
+     */
+    public static List<ListenerStats> getStats()
+    {
+        List<ListenerStats> ret = new ArrayList<ListenerStats>(stats.values());
+        Collections.sort(ret, new Comparator<ListenerStats>()
+        {
+            @Override
+            public int compare(ListenerStats a, ListenerStats b)
+            {
+                return Long.compare(b.getNanos(), a.getNanos());
+            }
+        });
+        return ret;
+    }
+
+    /**
+     * Writes the current statistics, totals per mod first, then per listener.
+     */
+    public static void dump(File file) throws IOException
+    {
+        List<ListenerStats> all = getStats();
+        Map<String, long[]> mods = Maps.newTreeMap();
+        for (ListenerStats entry : all)
+        {
+            long[] totals = mods.get(entry.getOwnerName());
+            if (totals == null)
+            {
+                totals = new long[3];
+                mods.put(entry.getOwnerName(), totals);
+            }
+            totals[0] += entry.getCount();
+            totals[1] += entry.getNanos();
+            totals[2] += entry.getBytes();
+        }
+
+        PrintWriter out = new PrintWriter(file, "UTF-8");
+        try
+        {
+            out.printf("# Event listener profile, %s%n", new java.util.Date());
+            out.println("# Mod\tCalls\tTotal ms\tBytes");
+            for (Map.Entry<String, long[]> mod : mods.entrySet())
+            {
+                long[] totals = mod.getValue();
+                out.printf("%s\t%d\t%.3f\t%d%n", mod.getKey(), totals[0], totals[1] / 1.0E6D, allocationsSupported ? totals[2] : -1);
+            }
+            out.println();
+            out.println("# Bus\tMod\tCalls\tTotal ms\tAvg us\tBytes\tListener");
+            for (ListenerStats entry : all)
+            {
+                out.printf("%d\t%s\t%d\t%.3f\t%.3f\t%d\t%s%n", entry.busID, entry.getOwnerName(), entry.getCount(), entry.getNanos() / 1.0E6D,
+                        entry.getNanos() / 1.0E3D / Math.max(entry.getCount(), 1), entry.getBytes(), entry.listener);
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Periodically dumps the statistics to the given file while profiling is enabled.
+     *
+     * @param period Seconds between dumps, 0 to stop dumping
+     */
+    public static synchronized void setDumpFile(final File file, int period)
+    {
+        if (dumpTask != null)
+        {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+        if (period <= 0)
+        {
+            return;
+        }
+        if (dumpExecutor == null)
+        {
+            dumpExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("Event Profiler Dump").setDaemon(true).build());
+        }
+        dumpTask = dumpExecutor.scheduleAtFixedRate(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (!enabled)
+                {
+                    return;
+                }
+                try
+                {
+                    dump(file);
+                }
+                catch (IOException e)
+                {
+                    FMLLog.log(Level.ERROR, e, "Failed to write event profile to %s", file);
+                }
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+}
@@ -4,9 +4,19 @@ import java.util.*;
 import com.google.common.collect.ImmutableList;
 
 
+/**
+ * Holds the listeners registered for a single event class, one instance per bus.
+ *
+ * Registration is serialized on a single lock and invalidates the cached listener
+ * arrays of the changed list and every list below it in the event hierarchy.
+ * The cached arrays are immutable snapshots published through a volatile field,
+ * so posting an event is a single volatile read once the snapshot is built, and
+ * listeners may be registered from any thread.
+ */
 public class ListenerList
 {
-    private static ImmutableList<ListenerList> allLists = ImmutableList.of();
+    private static final Object lock = new Object();
+    private static volatile ImmutableList<ListenerList> allLists = ImmutableList.of();
     private static int maxSize = 0;
 
     private ListenerList parent;
@@ -21,11 +31,14 @@ public class ListenerList
     {
         // parent needs to be set before resize !
         this.parent = parent;
-        extendMasterList(this);
-        resizeLists(maxSize);
+        synchronized (lock)
+        {
+            extendMasterList(this);
+            resizeLists(maxSize);
+        }
     }
 
-    private synchronized static void extendMasterList(ListenerList inst)
+    private static void extendMasterList(ListenerList inst)
     {
         ImmutableList.Builder<ListenerList> builder = ImmutableList.builder();
         builder.addAll(allLists);
@@ -35,54 +48,63 @@ public class ListenerList
 
     public static void resize(int max)
     {
-        if (max <= maxSize)
+        synchronized (lock)
         {
-            return;
-        }
-        for (ListenerList list : allLists)
-        {
-            list.resizeLists(max);
+            if (max <= maxSize)
+            {
+                return;
+            }
+            for (ListenerList list : allLists)
+            {
+                list.resizeLists(max);
+            }
+            maxSize = max;
         }
-        maxSize = max;
     }
 
     public void resizeLists(int max)
     {
-        if (parent != null)
+        synchronized (lock)
         {
-            parent.resizeLists(max);
-        }
+            if (parent != null)
+            {
+                parent.resizeLists(max);
+            }
 
-        if (lists.length >= max)
-        {
-            return;
-        }
+            if (lists.length >= max)
+            {
+                return;
+            }
 
-        ListenerListInst[] newList = new ListenerListInst[max];
-        int x = 0;
-        for (; x < lists.length; x++)
-        {
-            newList[x] = lists[x];
-        }
-        for(; x < max; x++)
-        {
-            if (parent != null)
+            ListenerListInst[] newList = new ListenerListInst[max];
+            int x = 0;
+            for (; x < lists.length; x++)
             {
-                newList[x] = new ListenerListInst(parent.getInstance(x));
+                newList[x] = lists[x];
             }
-            else
+            for(; x < max; x++)
             {
-                newList[x] = new ListenerListInst();
+                if (parent != null)
+                {
+                    newList[x] = new ListenerListInst(parent.getInstance(x));
+                }
+                else
+                {
+                    newList[x] = new ListenerListInst();
+                }
             }
+            lists = newList;
         }
-        lists = newList;
     }
 
     public static void clearBusID(int id)
     {
-        for (ListenerList list : allLists)
+        synchronized (lock)
         {
-            list.lists[id].dispose();
+            for (ListenerList list : allLists)
+            {
+                list.lists[id].dispose();
+            }
         }
     }
 
@@ -93,33 +115,75 @@ public class ListenerList
 
     public IEventListener[] getListeners(int id)
     {
-        return lists[id].getListeners();
+        return lists[id].getSnapshot().listeners;
+    }
+
+    /**
+     * Returns true if any listener, including ones registered for parent events,
+     * is registered on the specified bus.
+     */
+    public boolean hasListeners(int id)
+    {
+        return lists[id].getSnapshot().listeners.length > 0;
+    }
+
+    /**
+     * Returns the generated dispatcher for the specified bus, or null if the
+     * listener array returned by {@link #getListeners(int)} should be walked instead.
+     */
+    public IEventListener getDispatcher(int id)
+    {
+        return lists[id].getSnapshot().dispatcher;
     }
 
     public void register(int id, EventPriority priority, IEventListener listener)
     {
-        lists[id].register(priority, listener);
+        synchronized (lock)
+        {
+            lists[id].register(priority, listener);
+        }
     }
 
     public void unregister(int id, IEventListener listener)
     {
-        lists[id].unregister(listener);
+        synchronized (lock)
+        {
+            lists[id].unregister(listener);
+        }
     }
 
     public static void unregisterAll(int id, IEventListener listener)
     {
-        for (ListenerList list : allLists)
+        synchronized (lock)
+        {
+            for (ListenerList list : allLists)
+            {
+                list.unregister(id, listener);
+            }
+        }
+    }
+
+    /**
+     * Immutable view of a ListenerListInst, rebuilt after any change to it or its parents.
+     */
+    private static class Snapshot
+    {
+        private final IEventListener[] listeners;
+        private final IEventListener dispatcher;
+
+        private Snapshot(IEventListener[] listeners)
         {
-            list.unregister(id, listener);
+            this.listeners = listeners;
+            this.dispatcher = listeners.length > 0 ? ASMEventDispatcher.build(listeners) : null;
         }
     }
 
     private class ListenerListInst
     {
-        private boolean rebuild = true;
-        private IEventListener[] listeners;
+        private volatile Snapshot snapshot;
         private ArrayList<ArrayList<IEventListener>> priorities;
         private ListenerListInst parent;
+        private List<ListenerListInst> children = new ArrayList<ListenerListInst>();
 
         private ListenerListInst()
         {
@@ -139,14 +203,20 @@ public class ListenerList
                 listeners.clear();
             }
             priorities.clear();
+            if (parent != null)
+            {
+                parent.children.remove(this);
+            }
             parent = null;
-            listeners = null;
+            children.clear();
+            snapshot = null;
         }
 
         private ListenerListInst(ListenerListInst parent)
         {
             this();
             this.parent = parent;
+            parent.children.add(this);
         }
 
         /**
@@ -169,54 +239,69 @@ public class ListenerList
         }
 
         /**
-         * Returns a full list of all listeners for all priority levels.
-         * Including all parent listeners.
+         * Returns the current immutable snapshot of all listeners for all priority levels,
+         * including all parent listeners, in proper priority order.
          *
-         * List is returned in proper priority order.
+         * Rebuilds the snapshot if a registration has invalidated it since it was last built.
          *
-         * Automatically rebuilds the internal Array cache if its information is out of date.
-         *
-         * @return Array containing listeners
+         * @return The listener snapshot
          */
-        public IEventListener[] getListeners()
-        {
-            if (shouldRebuild()) buildCache();
-            return listeners;
-        }
-
-        protected boolean shouldRebuild()
+        public Snapshot getSnapshot()
         {
-            return rebuild || (parent != null && parent.shouldRebuild());
+            Snapshot ret = snapshot;
+            if (ret == null)
+            {
+                ret = buildCache();
+            }
+            return ret;
         }
 
         /**
-         * Rebuild the local Array of listeners, returns early if there is no work to do.
+         * Rebuild the snapshot of listeners, returns early if another thread already did the work.
          */
-        private void buildCache()
+        private Snapshot buildCache()
         {
-            if(parent != null && parent.shouldRebuild())
+            synchronized (lock)
             {
-                parent.buildCache();
-            }
+                Snapshot ret = snapshot;
+                if (ret != null)
+                {
+                    return ret;
+                }
 
-            ArrayList<IEventListener> ret = new ArrayList<IEventListener>();
-            for (EventPriority value : EventPriority.values())
-            {
-                List<IEventListener> listeners = getListeners(value);
-                if (listeners.size() > 0)
+                ArrayList<IEventListener> all = new ArrayList<IEventListener>();
+                for (EventPriority value : EventPriority.values())
                 {
-                    ret.add(value); //Add the priority to notify the event of it's current phase.
-                    ret.addAll(listeners);
+                    List<IEventListener> listeners = getListeners(value);
+                    if (listeners.size() > 0)
+                    {
+                        all.add(value); //Add the priority to notify the event of it's current phase.
+                        all.addAll(listeners);
+                    }
                 }
+                ret = new Snapshot(all.toArray(new IEventListener[all.size()]));
+                snapshot = ret;
+                return ret;
+            }
+        }
+
+        /**
+         * Drops the snapshot of this list and of every list that inherits from it.
+         * Must be called while holding the registration lock.
+         */
+        private void invalidate()
+        {
+            snapshot = null;
+            for (ListenerListInst child : children)
+            {
+                child.invalidate();
             }
-            listeners = ret.toArray(new IEventListener[ret.size()]);
-            rebuild = false;
         }
 
         public void register(EventPriority priority, IEventListener listener)
         {
             priorities.get(priority.ordinal()).add(listener);
-            rebuild = true;
+            invalidate();
         }
 
         public void unregister(IEventListener listener)
@@ -225,7 +310,7 @@ public class ListenerList
             {
                 if (list.remove(listener))
                 {
-                    rebuild = true;
+                    invalidate();
                 }
             }
         }
@@ -12,4 +12,8 @@ public @interface SubscribeEvent
 {
     public EventPriority priority() default EventPriority.NORMAL;
     public boolean receiveCanceled() default false;
+    /**
+     * Only honoured by {@link AsyncEventBus}, see there for the delivery rules.
+     */
+    public boolean async() default false;
 }
@@ -3,6 +3,7 @@ package cpw.mods.fml.common.gameevent;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.InventoryBasic;
 import net.minecraft.item.ItemStack;
 import cpw.mods.fml.common.eventhandler.Event;
 
@@ -13,6 +14,7 @@ public class PlayerEvent extends Event {
         this.player = player;
     }
 
+    @Event.Immutable
     public static class ItemPickupEvent extends PlayerEvent {
         public final EntityItem pickedUp;
         public ItemPickupEvent(EntityPlayer player, EntityItem pickedUp)
@@ -22,7 +24,7 @@ public class PlayerEvent extends Event {
         }
     }
 
-    public static class ItemCraftedEvent extends PlayerEvent {
+    public static class ItemCraftedEvent extends PlayerEvent implements Event.Snapshot {
         public final ItemStack crafting;
         public final IInventory craftMatrix;
         public ItemCraftedEvent(EntityPlayer player, ItemStack crafting, IInventory craftMatrix)
@@ -31,16 +33,35 @@ public class PlayerEvent extends Event {
             this.crafting = crafting;
             this.craftMatrix = craftMatrix;
         }
+
+        @Override
+        public Event snapshot()
+        {
+            // The matrix is emptied right after the event, async listeners get a copy of the stacks
+            InventoryBasic matrix = new InventoryBasic(craftMatrix.getInventoryName(), false, craftMatrix.getSizeInventory());
+            for (int x = 0; x < matrix.getSizeInventory(); x++)
+            {
+                matrix.setInventorySlotContents(x, ItemStack.copyItemStack(craftMatrix.getStackInSlot(x)));
+            }
+            return new ItemCraftedEvent(player, ItemStack.copyItemStack(crafting), matrix);
+        }
     }
-    public static class ItemSmeltedEvent extends PlayerEvent {
+    public static class ItemSmeltedEvent extends PlayerEvent implements Event.Snapshot {
         public final ItemStack smelting;
         public ItemSmeltedEvent(EntityPlayer player, ItemStack crafting)
         {
             super(player);
             this.smelting = crafting;
         }
+
+        @Override
+        public Event snapshot()
+        {
+            return new ItemSmeltedEvent(player, ItemStack.copyItemStack(smelting));
+        }
     }
 
+    @Event.Immutable
     public static class PlayerLoggedInEvent extends PlayerEvent {
         public PlayerLoggedInEvent(EntityPlayer player)
         {
@@ -48,6 +69,7 @@ public class PlayerEvent extends Event {
         }
     }
 
+    @Event.Immutable
     public static class PlayerLoggedOutEvent extends PlayerEvent {
         public PlayerLoggedOutEvent(EntityPlayer player)
         {
@@ -55,6 +77,7 @@ public class PlayerEvent extends Event {
         }
     }
 
+    @Event.Immutable
     public static class PlayerRespawnEvent extends PlayerEvent {
         public PlayerRespawnEvent(EntityPlayer player)
         {
@@ -62,6 +85,7 @@ public class PlayerEvent extends Event {
         }
     }
 
+    @Event.Immutable
     public static class PlayerChangedDimensionEvent extends PlayerEvent {
         public final int fromDim;
         public final int toDim;
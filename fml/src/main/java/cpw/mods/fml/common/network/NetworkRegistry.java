@@ -65,7 +65,8 @@ public enum NetworkRegistry
 
     // Version 1: ServerHello only contains this value as a byte
     // Version 2: ServerHello additionally contains a 4 byte (int) dimension for the logging in client
-    public static final byte FML_PROTOCOL = 2;
+    // Version 3: ClientHello may contain the 8 byte hash of the client's cached id map, ids are sent as RegistryData
+    public static final byte FML_PROTOCOL = 3;
 
     private NetworkRegistry()
     {
@@ -59,7 +59,19 @@ enum FMLHandshakeClientState implements IHandshakeState<FMLHandshakeClientState>
                 NetworkDispatcher dispatcher = ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get();
                 dispatcher.setOverrideDimension(serverHelloPacket.overrideDim());
             }
-            ctx.writeAndFlush(new FMLHandshakeMessage.ClientHello()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            FMLHandshakeMessage.ClientHello clientHello = new FMLHandshakeMessage.ClientHello();
+            if (serverHelloPacket.protocolVersion() > 2 && !ctx.channel().attr(NetworkDispatcher.IS_LOCAL).get())
+            {
+                // Offer the id map we got from this server last time, so it doesn't need to be sent again
+                NetworkDispatcher dispatcher = ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get();
+                RegistrySnapshot cached = RegistrySnapshot.loadCached(dispatcher.manager.channel().remoteAddress());
+                dispatcher.setCachedSnapshot(cached);
+                if (cached != null)
+                {
+                    clientHello = new FMLHandshakeMessage.ClientHello(cached.hash);
+                }
+            }
+            ctx.writeAndFlush(clientHello).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
             ctx.writeAndFlush(new FMLHandshakeMessage.ModList(Loader.instance().getActiveModList())).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
             return WAITINGSERVERDATA;
         }
@@ -93,8 +105,35 @@ enum FMLHandshakeClientState implements IHandshakeState<FMLHandshakeClientState>
         @Override
         public FMLHandshakeClientState accept(ChannelHandlerContext ctx, FMLHandshakeMessage msg)
         {
-            FMLHandshakeMessage.ModIdData modIds = (FMLHandshakeMessage.ModIdData)msg;
-            List<String> locallyMissing = GameData.injectWorldIDMap(modIds.dataList(), modIds.blockSubstitutions(), modIds.itemSubstitutions(), false, false);
+            GameData.GameDataSnapshot snapshot;
+            if (msg instanceof FMLHandshakeMessage.RegistryData)
+            {
+                NetworkDispatcher dispatcher = ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get();
+                FMLHandshakeMessage.RegistryData registryData = (FMLHandshakeMessage.RegistryData)msg;
+                RegistrySnapshot received = registryData.snapshot();
+                if (received == null)
+                {
+                    received = dispatcher.getCachedSnapshot();
+                    if (received == null || received.hash != registryData.hash())
+                    {
+                        dispatcher.rejectHandshake("Server referenced an unknown cached id map");
+                        FMLLog.severe("Failed to connect to server: the server referenced an id map that isn't cached");
+                        return ERROR;
+                    }
+                    FMLLog.fine("Using the cached id map of this server");
+                }
+                else
+                {
+                    received.saveCached(dispatcher.manager.channel().remoteAddress());
+                }
+                snapshot = received.snapshot;
+            }
+            else
+            {
+                FMLHandshakeMessage.ModIdData modIds = (FMLHandshakeMessage.ModIdData)msg;
+                snapshot = new GameData.GameDataSnapshot(modIds.dataList(), modIds.blockSubstitutions(), modIds.itemSubstitutions());
+            }
+            List<String> locallyMissing = GameData.injectWorldIDMap(snapshot.idMap, snapshot.blockSubstitutions, snapshot.itemSubstitutions, false, false);
             if (!locallyMissing.isEmpty())
             {
                 NetworkDispatcher dispatcher = ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get();
@@ -75,22 +75,56 @@ public abstract class FMLHandshakeMessage {
     }
     public static class ClientHello extends FMLHandshakeMessage {
         private byte serverProtocolVersion;
+        private boolean hasSnapshotHash;
+        private long snapshotHash;
+        public ClientHello()
+        {
+            // noargs for the proto
+        }
+        /**
+         * @param snapshotHash hash of the id map cached from the last session on the server, only sent to servers of protocol 3 and up
+         */
+        public ClientHello(long snapshotHash)
+        {
+            this.hasSnapshotHash = true;
+            this.snapshotHash = snapshotHash;
+        }
+
         @Override
         public void toBytes(ByteBuf buffer)
         {
             buffer.writeByte(NetworkRegistry.FML_PROTOCOL);
+            if (hasSnapshotHash)
+            {
+                buffer.writeLong(snapshotHash);
+            }
         }
 
         @Override
         public void fromBytes(ByteBuf buffer)
         {
             serverProtocolVersion = buffer.readByte();
+            if (serverProtocolVersion > 2 && buffer.readableBytes() >= 8)
+            {
+                hasSnapshotHash = true;
+                snapshotHash = buffer.readLong();
+            }
         }
 
         public byte protocolVersion()
         {
             return serverProtocolVersion;
         }
+
+        public boolean hasSnapshotHash()
+        {
+            return hasSnapshotHash;
+        }
+
+        public long snapshotHash()
+        {
+            return snapshotHash;
+        }
     }
     public static class ModList extends FMLHandshakeMessage {
         public ModList()
@@ -210,7 +244,7 @@ public abstract class FMLHandshakeMessage {
             {
                 ByteBufUtils.writeUTF8String(buffer, entry);
             }
-            ByteBufUtils.writeVarInt(buffer, blockSubstitutions.size(), 3);
+            ByteBufUtils.writeVarInt(buffer, itemSubstitutions.size(), 3);
 
             for (String entry: itemSubstitutions)
             {
@@ -237,6 +271,82 @@ public abstract class FMLHandshakeMessage {
             return super.toString(side) + ":"+modIds.size()+" mappings";
         }
     }
+    /**
+     * The id map for clients of protocol 3 and up, either compressed in full or only its hash if the client has it cached.
+     */
+    public static class RegistryData extends FMLHandshakeMessage {
+        private long hash;
+        private int length;
+        private byte[] compressed;
+
+        public RegistryData()
+        {
+
+        }
+
+        RegistryData(RegistrySnapshot snapshot, boolean sendTable)
+        {
+            this.hash = snapshot.hash;
+            if (sendTable)
+            {
+                this.length = snapshot.encoded.length;
+                this.compressed = snapshot.compress();
+            }
+        }
+
+        @Override
+        public void fromBytes(ByteBuf buffer)
+        {
+            hash = buffer.readLong();
+            if (buffer.readBoolean())
+            {
+                length = ByteBufUtils.readVarInt(buffer, 5);
+                compressed = new byte[ByteBufUtils.readVarInt(buffer, 5)];
+                buffer.readBytes(compressed);
+            }
+        }
+
+        @Override
+        public void toBytes(ByteBuf buffer)
+        {
+            buffer.writeLong(hash);
+            buffer.writeBoolean(compressed != null);
+            if (compressed != null)
+            {
+                ByteBufUtils.writeVarInt(buffer, length, 5);
+                ByteBufUtils.writeVarInt(buffer, compressed.length, 5);
+                buffer.writeBytes(compressed);
+            }
+        }
+
+        long hash()
+        {
+            return hash;
+        }
+
+        /**
+         * @return the received snapshot, or null if the server only confirmed the hash
+         */
+        RegistrySnapshot snapshot()
+        {
+            if (compressed == null)
+            {
+                return null;
+            }
+            RegistrySnapshot ret = RegistrySnapshot.decompress(compressed, length);
+            if (ret.hash != hash)
+            {
+                throw new IllegalArgumentException("Registry snapshot hash mismatch");
+            }
+            return ret;
+        }
+
+        @Override
+        public String toString(Class<? extends Enum<?>> side)
+        {
+            return super.toString(side) + ":" + (compressed == null ? "cached " + Long.toHexString(hash) : compressed.length + " bytes");
+        }
+    }
     public static class HandshakeAck extends FMLHandshakeMessage {
         int phase;
         public HandshakeAck() {}
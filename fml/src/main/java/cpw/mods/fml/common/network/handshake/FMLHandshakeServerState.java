@@ -33,6 +33,7 @@ enum FMLHandshakeServerState implements IHandshakeState<FMLHandshakeServerState>
             if (msg instanceof FMLHandshakeMessage.ClientHello)
             {
                 FMLLog.info("Client protocol version %x", ((FMLHandshakeMessage.ClientHello)msg).protocolVersion());
+                ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get().setClientHello((FMLHandshakeMessage.ClientHello)msg);
                 return this;
             }
 
@@ -56,7 +57,16 @@ enum FMLHandshakeServerState implements IHandshakeState<FMLHandshakeServerState>
         {
             if (!ctx.channel().attr(NetworkDispatcher.IS_LOCAL).get())
             {
-                ctx.writeAndFlush(new FMLHandshakeMessage.ModIdData(GameData.buildItemDataList())).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                NetworkDispatcher dispatcher = ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get();
+                if (dispatcher.getClientProtocol() > 2)
+                {
+                    RegistrySnapshot snapshot = RegistrySnapshot.of(GameData.buildItemDataList());
+                    ctx.writeAndFlush(new FMLHandshakeMessage.RegistryData(snapshot, !dispatcher.clientHasSnapshot(snapshot.hash))).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                }
+                else
+                {
+                    ctx.writeAndFlush(new FMLHandshakeMessage.ModIdData(GameData.buildItemDataList())).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                }
             }
             ctx.writeAndFlush(new FMLHandshakeMessage.HandshakeAck(ordinal())).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
             NetworkRegistry.INSTANCE.fireNetworkHandshake(ctx.channel().attr(NetworkDispatcher.FML_DISPATCHER).get(), Side.SERVER);
@@ -84,6 +84,11 @@ public class NetworkDispatcher extends SimpleChannelInboundHandler<Packet> imple
     private NetHandlerPlayServer serverHandler;
     private INetHandler netHandler;
     private int overrideLoginDim;
+    // client side: id map cached from the last session on this server. server side: the client's protocol and cached id map hash
+    private RegistrySnapshot cachedSnapshot;
+    private byte clientProtocol;
+    private boolean hasClientSnapshotHash;
+    private long clientSnapshotHash;
 
     public NetworkDispatcher(NetworkManager manager)
     {
@@ -503,6 +508,36 @@ public class NetworkDispatcher extends SimpleChannelInboundHandler<Packet> imple
         FMLLog.fine("Received override dimension %d", overrideDim);
     }
 
+    void setCachedSnapshot(RegistrySnapshot snapshot)
+    {
+        this.cachedSnapshot = snapshot;
+    }
+
+    RegistrySnapshot getCachedSnapshot()
+    {
+        return cachedSnapshot;
+    }
+
+    void setClientHello(FMLHandshakeMessage.ClientHello hello)
+    {
+        this.clientProtocol = hello.protocolVersion();
+        this.hasClientSnapshotHash = hello.hasSnapshotHash();
+        this.clientSnapshotHash = hello.snapshotHash();
+    }
+
+    byte getClientProtocol()
+    {
+        return clientProtocol;
+    }
+
+    /**
+     * @return whether the client has the id map with the given hash cached
+     */
+    boolean clientHasSnapshot(long hash)
+    {
+        return hasClientSnapshotHash && clientSnapshotHash == hash;
+    }
+
     public int getOverrideDimension(S01PacketJoinGame p_147282_1_) {
         FMLLog.fine("Overriding dimension: using %d", this.overrideLoginDim);
         return this.overrideLoginDim != 0 ? this.overrideLoginDim : p_147282_1_.func_149194_f();
@@ -0,0 +1,259 @@
+package cpw.mods.fml.common.network.handshake;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import cpw.mods.fml.common.FMLLog;
+import cpw.mods.fml.common.Loader;
+import cpw.mods.fml.common.network.ByteBufUtils;
+import cpw.mods.fml.common.registry.GameData.GameDataSnapshot;
+
+/**
+ * Compact encoding of a registry snapshot for the handshake.
+ *
+ * Names are sorted and only store the part that differs from the previous name, the whole encoding is
+ * deflated on the wire. The hash of the encoding identifies the snapshot, clients keep the last snapshot
+ * of every server they joined and the server skips sending it if the client already has it.
+ */
+class RegistrySnapshot
+{
+    // generous upper bound for the inflated size, to not trust the length sent by the other side blindly
+    private static final int MAX_SIZE = 16 * 1024 * 1024;
+
+    final GameDataSnapshot snapshot;
+    final byte[] encoded;
+    final long hash;
+
+    private RegistrySnapshot(GameDataSnapshot snapshot, byte[] encoded)
+    {
+        this.snapshot = snapshot;
+        this.encoded = encoded;
+        this.hash = Hashing.murmur3_128().hashBytes(encoded).asLong();
+    }
+
+    static RegistrySnapshot of(GameDataSnapshot snapshot)
+    {
+        ByteBuf buf = Unpooled.buffer();
+        Map<String, Integer> ids = new TreeMap<String, Integer>(snapshot.idMap);
+        ByteBufUtils.writeVarInt(buf, ids.size(), 3);
+        byte[] last = new byte[0];
+        for (Map.Entry<String, Integer> entry : ids.entrySet())
+        {
+            last = writeName(buf, last, entry.getKey());
+            ByteBufUtils.writeVarInt(buf, entry.getValue(), 3);
+        }
+        writeNames(buf, snapshot.blockSubstitutions);
+        writeNames(buf, snapshot.itemSubstitutions);
+
+        byte[] encoded = new byte[buf.readableBytes()];
+        buf.readBytes(encoded);
+        return new RegistrySnapshot(snapshot, encoded);
+    }
+
+    static RegistrySnapshot decode(byte[] encoded)
+    {
+        ByteBuf buf = Unpooled.wrappedBuffer(encoded);
+        Map<String, Integer> ids = Maps.newHashMap();
+        Set<String> blockSubstitutions;
+        Set<String> itemSubstitutions;
+        try
+        {
+            int count = ByteBufUtils.readVarInt(buf, 3);
+            byte[] last = new byte[0];
+            for (int i = 0; i < count; i++)
+            {
+                last = readName(buf, last);
+                ids.put(new String(last, Charsets.UTF_8), ByteBufUtils.readVarInt(buf, 3));
+            }
+            blockSubstitutions = readNames(buf);
+            itemSubstitutions = readNames(buf);
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            throw new IllegalArgumentException("Truncated registry snapshot", e);
+        }
+        if (buf.isReadable())
+        {
+            throw new IllegalArgumentException(String.format("Registry snapshot has %d trailing bytes", buf.readableBytes()));
+        }
+        return new RegistrySnapshot(new GameDataSnapshot(ids, blockSubstitutions, itemSubstitutions), encoded);
+    }
+
+    private static void writeNames(ByteBuf buf, Collection<String> names)
+    {
+        ByteBufUtils.writeVarInt(buf, names.size(), 3);
+        byte[] last = new byte[0];
+        for (String name : new TreeSet<String>(names))
+        {
+            last = writeName(buf, last, name);
+        }
+    }
+
+    private static Set<String> readNames(ByteBuf buf)
+    {
+        Set<String> ret = Sets.newHashSet();
+        int count = ByteBufUtils.readVarInt(buf, 3);
+        byte[] last = new byte[0];
+        for (int i = 0; i < count; i++)
+        {
+            last = readName(buf, last);
+            ret.add(new String(last, Charsets.UTF_8));
+        }
+        return ret;
+    }
+
+    /**
+     * Write the name as the length of the prefix shared with the previous name and the remaining bytes.
+     */
+    private static byte[] writeName(ByteBuf buf, byte[] last, String name)
+    {
+        byte[] bytes = name.getBytes(Charsets.UTF_8);
+        int shared = 0;
+        int max = Math.min(last.length, bytes.length);
+        while (shared < max && last[shared] == bytes[shared])
+        {
+            shared++;
+        }
+        ByteBufUtils.writeVarInt(buf, shared, 3);
+        ByteBufUtils.writeVarInt(buf, bytes.length - shared, 3);
+        buf.writeBytes(bytes, shared, bytes.length - shared);
+        return bytes;
+    }
+
+    private static byte[] readName(ByteBuf buf, byte[] last)
+    {
+        int shared = ByteBufUtils.readVarInt(buf, 3);
+        int length = ByteBufUtils.readVarInt(buf, 3);
+        if (shared > last.length)
+        {
+            throw new IllegalArgumentException("Invalid registry snapshot name prefix");
+        }
+        byte[] bytes = Arrays.copyOf(last, shared + length);
+        buf.readBytes(bytes, shared, length);
+        return bytes;
+    }
+
+    byte[] compress()
+    {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(encoded);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length / 4 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished())
+        {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    static RegistrySnapshot decompress(byte[] compressed, int length)
+    {
+        if (length < 0 || length > MAX_SIZE)
+        {
+            throw new IllegalArgumentException(String.format("Invalid registry snapshot size %d", length));
+        }
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] encoded = new byte[length];
+        try
+        {
+            int read = 0;
+            while (read < length && !inflater.finished())
+            {
+                int n = inflater.inflate(encoded, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length)
+            {
+                throw new IllegalArgumentException(String.format("Truncated registry snapshot, %d of %d bytes", read, length));
+            }
+            // the stream has to end right here, including its checksum
+            if (!inflater.finished() && inflater.inflate(new byte[1]) > 0)
+            {
+                throw new IllegalArgumentException(String.format("Registry snapshot larger than %d bytes", length));
+            }
+            if (!inflater.finished())
+            {
+                throw new IllegalArgumentException("Truncated registry snapshot");
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw new IllegalArgumentException("Corrupt registry snapshot", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+        return decode(encoded);
+    }
+
+    // client side cache of the last snapshot received from each server
+
+    private static File cacheFile(SocketAddress server)
+    {
+        String name = String.valueOf(server).replaceAll("[^A-Za-z0-9._-]", "_");
+        return new File(new File(Loader.instance().getConfigDir().getParentFile(), "fml-cache"), "idmap-" + name + ".bin");
+    }
+
+    /**
+     * @return the snapshot last received from the server, or null if there is none or it is unreadable
+     */
+    static RegistrySnapshot loadCached(SocketAddress server)
+    {
+        File file = cacheFile(server);
+        if (!file.isFile())
+        {
+            return null;
+        }
+        try
+        {
+            return decode(Files.toByteArray(file));
+        }
+        catch (Exception e)
+        {
+            FMLLog.fine("Ignoring the unreadable cached id map %s: %s", file, e);
+            return null;
+        }
+    }
+
+    void saveCached(SocketAddress server)
+    {
+        File file = cacheFile(server);
+        try
+        {
+            Files.createParentDirs(file);
+            Files.write(encoded, file);
+        }
+        catch (IOException e)
+        {
+            FMLLog.fine("Failed to cache the id map in %s: %s", file, e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +40,8 @@ public class FMLControlledNamespacedRegistry<I> extends RegistryNamespaced {
     private final Map<String, String> aliases = new HashMap<String, String>();
     private BiMap<String, I> persistentSubstitutions;
     private BiMap<String, I> activeSubstitutions = HashBiMap.create();
+    // dense id <-> object tables mirroring the underlying maps, published once the ids are final and dropped on any change
+    private volatile FrozenIds frozenIds;
 
     FMLControlledNamespacedRegistry(String optionalDefault, int maxIdValue, int minIdValue, Class<I> type, char discriminator)
     {
@@ -106,6 +109,7 @@ public class FMLControlledNamespacedRegistry<I> extends RegistryNamespaced {
         this.aliases.clear();
         this.aliases.putAll(registry.aliases);
         this.activeSubstitutions.clear();
+        this.frozenIds = null;
 
         underlyingIntegerMap = new ObjectIntIdentityMap();
         registryObjects.clear();
@@ -230,6 +234,19 @@ public class FMLControlledNamespacedRegistry<I> extends RegistryNamespaced {
         return getIDForObject(thing);
     }
 
+    /**
+     * Get the id for the specified object, -1 if it wasn't found.
+     *
+     * Uses the frozen id table once the ids are final, this is what Block.getIdFromBlock and
+     * Item.getIdFromItem end up calling.
+     */
+    @Override
+    public int getIDForObject(Object thing)
+    {
+        FrozenIds ids = frozenIds;
+        return ids != null ? ids.getId(thing) : super.getIDForObject(thing);
+    }
+
     /**
      * Get the object identified by the specified id.
      *
@@ -238,7 +255,8 @@ public class FMLControlledNamespacedRegistry<I> extends RegistryNamespaced {
      */
     public I getRaw(int id)
     {
-        return cast(super.getObjectById(id));
+        FrozenIds ids = frozenIds;
+        return cast(ids != null ? ids.get(id) : super.getObjectById(id));
     }
 
     /**
@@ -466,10 +484,95 @@ public class FMLControlledNamespacedRegistry<I> extends RegistryNamespaced {
         if (thing == null) throw new NullPointerException("The object to be added to the registry is null. This can only happen with a corrupted registry state. Reflection/ASM hackery? Registry bug?");
         if (!superType.isInstance(thing)) throw new IllegalArgumentException("The object to be added to the registry is not of the right type. Reflection/ASM hackery? Registry bug?");
 
+        frozenIds = null;
         underlyingIntegerMap.func_148746_a(thing, id); // obj <-> id
         super.putObject(name, thing); // name <-> obj
     }
 
+    /**
+     * Publish array backed copies of the id maps, used by the id lookups until the registry changes again.
+     *
+     * Called once the ids are final, after freezing and after injecting a world's id map.
+     */
+    void freezeIds()
+    {
+        // Built through the lookups of the superclass like set() does, the collections behind the id map are not accessible
+        Map<Object, Integer> byObject = new IdentityHashMap<Object, Integer>();
+        int max = -1;
+        for (I thing : typeSafeIterable())
+        {
+            int id = super.getIDForObject(thing);
+            byObject.put(thing, id);
+            max = Math.max(max, id);
+        }
+        Object[] byId = new Object[max + 1];
+        for (int id = 0; id <= max; id++)
+        {
+            byId[id] = super.getObjectById(id);
+        }
+        frozenIds = new FrozenIds(byId, byObject);
+    }
+
+    boolean hasFrozenIds()
+    {
+        return frozenIds != null;
+    }
+
+    private static class FrozenIds
+    {
+        private final Object[] byId;
+        // open addressed identity table, a null key marks a free slot
+        private final Object[] keys;
+        private final int[] ids;
+        private final int mask;
+
+        FrozenIds(Object[] byId, Map<Object, Integer> byObject)
+        {
+            this.byId = byId;
+            int capacity = Integer.highestOneBit(Math.max(byObject.size(), 8) * 2 - 1) << 1;
+            this.keys = new Object[capacity];
+            this.ids = new int[capacity];
+            this.mask = capacity - 1;
+            for (Map.Entry<Object, Integer> entry : byObject.entrySet())
+            {
+                int pos = slot(entry.getKey());
+                while (keys[pos] != null)
+                {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = entry.getKey();
+                ids[pos] = entry.getValue();
+            }
+        }
+
+        private int slot(Object key)
+        {
+            int h = System.identityHashCode(key);
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        Object get(int id)
+        {
+            return id >= 0 && id < byId.length ? byId[id] : null;
+        }
+
+        int getId(Object thing)
+        {
+            if (thing == null)
+            {
+                return -1;
+            }
+            for (int pos = slot(thing); keys[pos] != null; pos = (pos + 1) & mask)
+            {
+                if (keys[pos] == thing)
+                {
+                    return ids[pos];
+                }
+            }
+            return -1;
+        }
+    }
+
     public I getDefaultValue()
     {
         return optionalDefaultObject;
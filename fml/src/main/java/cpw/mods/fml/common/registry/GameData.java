@@ -23,6 +23,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
@@ -34,12 +37,14 @@ import org.apache.logging.log4j.Level;
 import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Joiner.MapJoiner;
+import com.google.common.base.Throwables;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -79,6 +84,10 @@ public class GameData {
     private static Table<String, String, ItemStack> customItemStacks = HashBasedTable.create();
     private static Map<UniqueIdentifier, ModContainer> customOwners = Maps.newHashMap();
     private static GameData frozen;
+    // whether the active state was set from the frozen one, see isMainFrozen
+    private static boolean mainFrozen;
+    // the last id map injected on top of the frozen state, reused when the same server or world is joined again
+    private static InjectedIdMap lastInjection;
 
     // public api
 
@@ -434,6 +443,40 @@ public class GameData {
     public static List<String> injectWorldIDMap(Map<String, Integer> dataList, Set<Integer> blockedIds, Map<String, String> blockAliases, Map<String, String> itemAliases, Set<String> blockSubstitutions, Set<String> itemSubstitutions, boolean injectFrozenData, boolean isLocalWorld)
     {
         FMLLog.info("Injecting existing block and item data into this %s instance", FMLCommonHandler.instance().getEffectiveSide().isServer() ? "server" : "client");
+
+        if (isActive(dataList, blockedIds, blockAliases, itemAliases, blockSubstitutions, itemSubstitutions, injectFrozenData))
+        {
+            FMLLog.fine("The injected id map matches the active one, skipping the injection.");
+            getMain().iItemRegistry.resetSubstitutionDelegates();
+            for (String entry : getActiveSubstitutions(getMain().iItemRegistry))
+            {
+                getMain().iItemRegistry.activateSubstitution(entry);
+            }
+            Loader.instance().fireRemapEvent(ImmutableMap.<String,Integer[]>of());
+            ObjectHolderRegistry.INSTANCE.applyObjectHolders();
+            return ImmutableList.of();
+        }
+
+        boolean fromFrozen = isMainFrozen();
+        List<Object> inputs = ImmutableList.<Object>of(new HashMap<String, Integer>(dataList), new HashSet<Integer>(blockedIds), new HashMap<String, String>(blockAliases),
+                new HashMap<String, String>(itemAliases), new HashSet<String>(blockSubstitutions), new HashSet<String>(itemSubstitutions), injectFrozenData);
+        InjectedIdMap cached = lastInjection;
+        if (fromFrozen && cached != null && cached.inputs.equals(inputs))
+        {
+            FMLLog.fine("Reusing the previous injection of this id map.");
+            getMain().iItemRegistry.resetSubstitutionDelegates();
+            for (String entry : getActiveSubstitutions(cached.data.iItemRegistry))
+            {
+                getMain().iItemRegistry.activateSubstitution(entry);
+            }
+            getMain().set(cached.data);
+            getMain().freezeIds();
+            mainFrozen = false;
+            Loader.instance().fireRemapEvent(new HashMap<String, Integer[]>(cached.remaps));
+            ObjectHolderRegistry.INSTANCE.applyObjectHolders();
+            return ImmutableList.of();
+        }
+
         Map<String, Integer[]> remaps = Maps.newHashMap();
         LinkedHashMap<String, Integer> missingMappings = new LinkedHashMap<String, Integer>();
         getMain().testConsistency();
@@ -581,6 +624,10 @@ public class GameData {
 
         newData.testConsistency();
         getMain().set(newData);
+        getMain().freezeIds();
+        mainFrozen = false;
+        // only reusable if no mod had to handle missing mappings and the injection started from the frozen state
+        lastInjection = fromFrozen && missingMappings.isEmpty() ? new InjectedIdMap(inputs, newData, new HashMap<String, Integer[]>(remaps)) : null;
 
         getMain().iBlockRegistry.dump();
         getMain().iItemRegistry.dump();
@@ -590,6 +637,90 @@ public class GameData {
         return ImmutableList.of();
     }
 
+    /**
+     * Check whether injecting the given id map would reproduce the active state exactly.
+     */
+    private static boolean isActive(Map<String, Integer> dataList, Set<Integer> blockedIds, Map<String, String> blockAliases, Map<String, String> itemAliases, Set<String> blockSubstitutions, Set<String> itemSubstitutions, boolean injectFrozenData)
+    {
+        GameData main = getMain();
+
+        if (!main.blockedIds.equals(blockedIds)) return false;
+        if (!main.iBlockRegistry.getAliases().equals(blockAliases) || !main.iItemRegistry.getAliases().equals(itemAliases)) return false;
+        if (!getActiveSubstitutions(main.iBlockRegistry).equals(getExpectedSubstitutions(blockSubstitutions, main.blockSubstitutions, injectFrozenData))) return false;
+        if (!getActiveSubstitutions(main.iItemRegistry).equals(getExpectedSubstitutions(itemSubstitutions, main.itemSubstitutions, injectFrozenData))) return false;
+
+        int blocks = 0;
+        int items = 0;
+
+        for (Entry<String, Integer> entry : dataList.entrySet())
+        {
+            boolean isBlock = entry.getKey().charAt(0) == '\u0001';
+            FMLControlledNamespacedRegistry<?> registry = isBlock ? main.iBlockRegistry : main.iItemRegistry;
+            String name = entry.getKey().substring(1);
+            Object thing = registry.getRaw(name);
+
+            // missing, aliased or differently numbered entries need the full injection
+            if (thing == null || !name.equals(registry.getNameForObject(thing)) || registry.getIDForObject(thing) != entry.getValue()) return false;
+
+            if (isBlock)
+            {
+                blocks++;
+            }
+            else
+            {
+                items++;
+            }
+        }
+
+        if (blocks != Iterators.size(main.iBlockRegistry.typeSafeIterable().iterator()) || items != Iterators.size(main.iItemRegistry.typeSafeIterable().iterator())) return false;
+
+        // frozen entries missing from the map would be added
+        return !injectFrozenData || (frozen.iBlockRegistry.getEntriesNotIn(main.iBlockRegistry).isEmpty() && frozen.iItemRegistry.getEntriesNotIn(main.iItemRegistry).isEmpty());
+    }
+
+    private static Set<String> getActiveSubstitutions(FMLControlledNamespacedRegistry<?> registry)
+    {
+        Set<String> ret = new HashSet<String>();
+        registry.serializeSubstitutions(ret);
+        return ret;
+    }
+
+    /**
+     * The substitutions an injection activates, only persistent ones can be activated.
+     */
+    private static Set<String> getExpectedSubstitutions(Set<String> requested, BiMap<String, ?> persistent, boolean injectFrozenData)
+    {
+        Set<String> ret = new HashSet<String>();
+        for (String entry : requested)
+        {
+            if (persistent.containsKey(entry)) ret.add(entry);
+        }
+        if (injectFrozenData) ret.addAll(persistent.keySet());
+        return ret;
+    }
+
+    /**
+     * Whether the active state is the frozen one, untouched since freezing or reverting to it.
+     */
+    private static boolean isMainFrozen()
+    {
+        return mainFrozen && getMain().iBlockRegistry.hasFrozenIds() && getMain().iItemRegistry.hasFrozenIds();
+    }
+
+    private static class InjectedIdMap
+    {
+        final List<Object> inputs;
+        final GameData data;
+        final Map<String, Integer[]> remaps;
+
+        InjectedIdMap(List<Object> inputs, GameData data, Map<String, Integer[]> remaps)
+        {
+            this.inputs = inputs;
+            this.data = data;
+            this.remaps = remaps;
+        }
+    }
+
     public static List<String> processIdRematches(Iterable<MissingMapping> missedMappings, boolean isLocalWorld, GameData gameData, Map<String, Integer[]> remaps)
     {
         List<String> failed = Lists.newArrayList();
@@ -722,6 +853,9 @@ public class GameData {
         getMain().testConsistency();
         frozen = new GameData(getMain());
         frozen.testConsistency();
+        getMain().freezeIds();
+        mainFrozen = true;
+        lastInjection = null;
     }
 
     public static void revertToFrozen()
@@ -735,6 +869,8 @@ public class GameData {
             FMLLog.fine("Reverting to frozen data state.");
 
             getMain().set(frozen);
+            getMain().freezeIds();
+            mainFrozen = true;
         }
         // the id mapping has reverted, fire remap events for those that care about id changes
         Loader.instance().fireRemapEvent(ImmutableMap.<String,Integer[]>of());
@@ -784,6 +920,15 @@ public class GameData {
         blockedIds.addAll(data.blockedIds);
     }
 
+    /**
+     * Switch the id lookups of both registries to their array backed copies, until they change again.
+     */
+    private void freezeIds()
+    {
+        iBlockRegistry.freezeIds();
+        iItemRegistry.freezeIds();
+    }
+
     int register(Object obj, String name, int idHint) // from FMLControlledNamespacedRegistry.addObject
     {
         // tolerate extra name prefixes here since mc does it as well
@@ -988,6 +1133,20 @@ public class GameData {
     }
 
     private void testConsistency() {
+        // the item registry check only reads, run it next to the block registry check
+        FutureTask<Void> itemCheck = new FutureTask<Void>(new Callable<Void>()
+        {
+            @Override
+            public Void call()
+            {
+                iItemRegistry.validateContent(MAX_ITEM_ID, "item", availabilityMap, blockedIds, iBlockRegistry);
+                return null;
+            }
+        });
+        Thread thread = new Thread(itemCheck, "FML Registry Check");
+        thread.setDaemon(true);
+        thread.start();
+
         // test if there's an entry for every set bit in availabilityMap
         for (int i = availabilityMap.nextSetBit(0); i >= 0; i = availabilityMap.nextSetBit(i+1))
         {
@@ -997,12 +1156,20 @@ public class GameData {
             }
         }
 
-        for (int pass = 0; pass < 2; pass++)
+        iBlockRegistry.validateContent(MAX_BLOCK_ID, "block", availabilityMap, blockedIds, iBlockRegistry);
+
+        try
+        {
+            itemCheck.get();
+        }
+        catch (InterruptedException e)
+        {
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e)
         {
-            boolean isBlock = pass == 0;
-            String type = isBlock ? "block" : "item";
-            FMLControlledNamespacedRegistry<?> registry = isBlock ? iBlockRegistry : iItemRegistry;
-            registry.validateContent((isBlock ? MAX_BLOCK_ID : MAX_ITEM_ID), type, availabilityMap, blockedIds, iBlockRegistry);
+            Throwables.propagateIfPossible(e.getCause());
+            throw new RuntimeException(e.getCause());
         }
 
         FMLLog.fine("Registry consistency check successful");
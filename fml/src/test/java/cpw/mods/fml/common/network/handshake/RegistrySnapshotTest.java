@@ -0,0 +1,266 @@
+package cpw.mods.fml.common.network.handshake;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import cpw.mods.fml.common.registry.GameData.GameDataSnapshot;
+
+public class RegistrySnapshotTest {
+
+    private static final String[] NAMES = {
+        "\u0001minecraft:stone", "\u0001minecraft:stone_slab", "\u0001minecraft:stone_stairs", "\u0001minecraft:stonebrick",
+        "\u0002minecraft:stone", "\u0002minecraft:stone_pickaxe", "\u0002minecraft:stone_sword",
+        "\u0001examplemod:ore", "\u0002examplemod:ore", "\u0002examplemod:\u00e9p\u00e9e"
+    };
+
+    private static Map<String, Integer> ids(Map<String, Integer> map, List<String> names)
+    {
+        for (String name : names)
+        {
+            map.put(name, name.length() * 31 + name.charAt(0));
+        }
+        return map;
+    }
+
+    private static GameDataSnapshot sample()
+    {
+        return new GameDataSnapshot(ids(new HashMap<String, Integer>(), Arrays.asList(NAMES)), Sets.newHashSet("minecraft:stone"), Sets.newHashSet("minecraft:stone", "examplemod:ore"));
+    }
+
+    private static void assertSameSnapshot(GameDataSnapshot expected, GameDataSnapshot actual)
+    {
+        assertEquals(expected.idMap, actual.idMap);
+        assertEquals(expected.blockSubstitutions, actual.blockSubstitutions);
+        assertEquals(expected.itemSubstitutions, actual.itemSubstitutions);
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        GameDataSnapshot snapshot = sample();
+        RegistrySnapshot encoded = RegistrySnapshot.of(snapshot);
+
+        RegistrySnapshot decoded = RegistrySnapshot.decode(encoded.encoded);
+        assertSameSnapshot(snapshot, decoded.snapshot);
+        assertEquals("hash survives decoding", encoded.hash, decoded.hash);
+
+        byte[] compressed = encoded.compress();
+        RegistrySnapshot inflated = RegistrySnapshot.decompress(compressed, encoded.encoded.length);
+        assertSameSnapshot(snapshot, inflated.snapshot);
+        assertArrayEquals(encoded.encoded, inflated.encoded);
+        assertEquals(encoded.hash, inflated.hash);
+
+        // Empty registries
+        GameDataSnapshot empty = new GameDataSnapshot(new HashMap<String, Integer>(), new HashSet<String>(), new HashSet<String>());
+        RegistrySnapshot none = RegistrySnapshot.of(empty);
+        assertArrayEquals("three empty counts", new byte[] { 0, 0, 0 }, none.encoded);
+        assertSameSnapshot(empty, RegistrySnapshot.decompress(none.compress(), none.encoded.length).snapshot);
+    }
+
+    @Test
+    public void testPrefixSharing()
+    {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        ids.put("a:bd", 2);
+        ids.put("a:bc", 1);
+        ids.put("b", 3);
+        RegistrySnapshot snapshot = RegistrySnapshot.of(new GameDataSnapshot(ids, Collections.<String>emptySet(), Sets.newHashSet("x:yz", "x:y")));
+        assertArrayEquals("sorted names storing the shared prefix length, the length and the rest", new byte[] {
+            3,
+            0, 4, 'a', ':', 'b', 'c', 1,
+            3, 1, 'd', 2,
+            0, 1, 'b', 3,
+            0,
+            2,
+            0, 3, 'x', ':', 'y',
+            3, 1, 'z'
+        }, snapshot.encoded);
+
+        // A name that is a prefix of the previous one only keeps the prefix
+        ids.clear();
+        ids.put("ab", 1);
+        ids.put("abc", 2);
+        ids.put("abd", 3);
+        ids.put("abde", 4);
+        RegistrySnapshot prefixes = RegistrySnapshot.of(new GameDataSnapshot(ids, Collections.<String>emptySet(), Collections.<String>emptySet()));
+        assertEquals(ids, RegistrySnapshot.decode(prefixes.encoded).snapshot.idMap);
+
+        // Multi byte characters split in the middle by the shared prefix
+        ids.clear();
+        ids.put("a:\u00e9", 1);
+        ids.put("a:\u00e8", 2);
+        ids.put("a:\u4e2d", 3);
+        RegistrySnapshot unicode = RegistrySnapshot.of(new GameDataSnapshot(ids, Collections.<String>emptySet(), Collections.<String>emptySet()));
+        assertEquals(ids, RegistrySnapshot.decode(unicode.encoded).snapshot.idMap);
+
+        // Real registries share most of every name
+        RegistrySnapshot sample = RegistrySnapshot.of(sample());
+        int plain = 0;
+        for (String name : NAMES)
+        {
+            plain += name.length();
+        }
+        assertTrue("shorter than the plain names", sample.encoded.length < plain);
+    }
+
+    @Test
+    public void testVarIntLimits()
+    {
+        // Ids and lengths are written as varints of up to 3 bytes
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        ids.put("a", 0);
+        ids.put("b", 127);
+        ids.put("c", 128);
+        ids.put("d", 16383);
+        ids.put("e", 16384);
+        ids.put("f", 2097151);
+        ids.put(Strings.repeat("g", 127), 1);
+        ids.put(Strings.repeat("g", 128), 2);
+        ids.put(Strings.repeat("h", 20000), 3);
+        GameDataSnapshot snapshot = new GameDataSnapshot(ids, Collections.<String>emptySet(), Collections.<String>emptySet());
+        RegistrySnapshot encoded = RegistrySnapshot.of(snapshot);
+        assertSameSnapshot(snapshot, RegistrySnapshot.decompress(encoded.compress(), encoded.encoded.length).snapshot);
+
+        ids.put("i", 2097152);
+        try
+        {
+            RegistrySnapshot.of(snapshot);
+            fail("id does not fit 3 bytes");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+
+        // A count longer than 3 bytes
+        try
+        {
+            RegistrySnapshot.decode(new byte[] { (byte)0x80, (byte)0x80, (byte)0x80, 0x01, 0, 0 });
+            fail("accepted a 4 byte varint");
+        }
+        catch (RuntimeException e)
+        {
+        }
+    }
+
+    @Test
+    public void testHashStable()
+    {
+        // The same registry filled in different orders hashes the same, the client cache depends on it
+        List<String> names = Arrays.asList(NAMES);
+        List<String> reversed = Lists.reverse(names);
+        Set<String> subs = Sets.newLinkedHashSet(Arrays.asList("minecraft:stone", "examplemod:ore"));
+        Set<String> subsReversed = Sets.newLinkedHashSet(Arrays.asList("examplemod:ore", "minecraft:stone"));
+
+        RegistrySnapshot first = RegistrySnapshot.of(new GameDataSnapshot(ids(new LinkedHashMap<String, Integer>(), names), subs, subs));
+        RegistrySnapshot second = RegistrySnapshot.of(new GameDataSnapshot(ids(new LinkedHashMap<String, Integer>(), reversed), subsReversed, subsReversed));
+        RegistrySnapshot third = RegistrySnapshot.of(new GameDataSnapshot(ids(new HashMap<String, Integer>(), reversed), new HashSet<String>(subs), new HashSet<String>(subs)));
+        assertArrayEquals(first.encoded, second.encoded);
+        assertArrayEquals(first.encoded, third.encoded);
+        assertEquals(first.hash, second.hash);
+        assertEquals(first.hash, third.hash);
+
+        // Re-encoding what was decoded gives the same bytes
+        assertArrayEquals(first.encoded, RegistrySnapshot.of(RegistrySnapshot.decode(first.encoded).snapshot).encoded);
+
+        // Any change changes the hash
+        Map<String, Integer> changed = ids(new HashMap<String, Integer>(), names);
+        changed.put(NAMES[0], changed.get(NAMES[0]) + 1);
+        assertFalse("changed id", first.hash == RegistrySnapshot.of(new GameDataSnapshot(changed, subs, subs)).hash);
+        assertFalse("moved substitution", first.hash == RegistrySnapshot.of(new GameDataSnapshot(ids(new HashMap<String, Integer>(), names), subs, Collections.<String>emptySet())).hash);
+    }
+
+    @Test
+    public void testRejectTruncated()
+    {
+        RegistrySnapshot snapshot = RegistrySnapshot.of(sample());
+        byte[] encoded = snapshot.encoded;
+        for (int length = 0; length < encoded.length; length++)
+        {
+            try
+            {
+                RegistrySnapshot.decode(Arrays.copyOf(encoded, length));
+                fail("accepted " + length + " of " + encoded.length + " bytes");
+            }
+            catch (IllegalArgumentException e)
+            {
+            }
+        }
+
+        byte[] compressed = snapshot.compress();
+        for (int length = 0; length < compressed.length; length++)
+        {
+            try
+            {
+                RegistrySnapshot.decompress(Arrays.copyOf(compressed, length), encoded.length);
+                fail("accepted " + length + " of " + compressed.length + " compressed bytes");
+            }
+            catch (IllegalArgumentException e)
+            {
+            }
+        }
+
+        // Claims to be larger than it is
+        assertRejected(compressed, encoded.length + 1);
+        // Not deflated at all
+        assertRejected(encoded, encoded.length);
+
+        // A prefix longer than the previous name
+        assertRejectedEncoding(new byte[] { 1, 2, 1, 'a', 1, 0, 0 });
+    }
+
+    @Test
+    public void testRejectOversized()
+    {
+        RegistrySnapshot snapshot = RegistrySnapshot.of(sample());
+        byte[] compressed = snapshot.compress();
+
+        // More data than announced
+        assertRejected(compressed, snapshot.encoded.length - 1);
+        // Announced sizes that are not believed
+        assertRejected(compressed, -1);
+        assertRejected(compressed, 16 * 1024 * 1024 + 1);
+        assertRejected(compressed, Integer.MAX_VALUE);
+
+        // Trailing bytes after the substitutions
+        byte[] trailing = Arrays.copyOf(snapshot.encoded, snapshot.encoded.length + 1);
+        assertRejectedEncoding(trailing);
+    }
+
+    private static void assertRejected(byte[] compressed, int length)
+    {
+        try
+        {
+            RegistrySnapshot.decompress(compressed, length);
+            fail("accepted " + compressed.length + " bytes as " + length);
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    private static void assertRejectedEncoding(byte[] encoded)
+    {
+        try
+        {
+            RegistrySnapshot.decode(encoded);
+            fail("accepted " + Arrays.toString(encoded));
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+}
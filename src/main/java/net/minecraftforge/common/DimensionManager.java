@@ -9,6 +9,8 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.Level;
@@ -42,7 +44,8 @@ public class DimensionManager
     private static Hashtable<Integer, WorldServer> worlds = new Hashtable<Integer, WorldServer>();
     private static boolean hasInit = false;
     private static Hashtable<Integer, Integer> dimensions = new Hashtable<Integer, Integer>();
-    private static ArrayList<Integer> unloadQueue = new ArrayList<Integer>();
+    // Dimensions ticking in parallel queue themselves from their own threads
+    private static Queue<Integer> unloadQueue = new ConcurrentLinkedQueue<Integer>();
     private static BitSet dimensionMap = new BitSet(Long.SIZE << 4);
     private static ConcurrentMap<World, World> weakWorldMap = new MapMaker().weakKeys().weakValues().<World,World>makeMap();
     private static Multiset<Integer> leakedWorlds = HashMultiset.create();
@@ -313,7 +316,8 @@ public class DimensionManager
     * To be called by the server at the appropriate time, do not call from mod code.
     */
     public static void unloadWorlds(Hashtable<Integer, long[]> worldTickTimes) {
-        for (int id : unloadQueue) {
+        Integer id;
+        while ((id = unloadQueue.poll()) != null) {
             WorldServer w = worlds.get(id);
             try {
                 if (w != null)
@@ -337,7 +341,6 @@ public class DimensionManager
                 }
             }
         }
-        unloadQueue.clear();
     }
 
     /**
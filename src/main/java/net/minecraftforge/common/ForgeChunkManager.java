@@ -8,6 +8,7 @@ package net.minecraftforge.common;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,7 @@ import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.common.config.Property;
 import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.common.util.LongHashSet;
 
 /**
  * Manages chunkloading for mods.
@@ -84,7 +86,9 @@ public class ForgeChunkManager
 
     private static Map<String, LoadingCallback> callbacks = Maps.newHashMap();
 
-    private static Map<World, ImmutableSetMultimap<ChunkCoordIntPair,Ticket>> forcedChunks = new MapMaker().weakKeys().makeMap();
+    private static Map<World, ForcedChunkIndex> forcedChunks = new MapMaker().weakKeys().makeMap();
+    // Copy of the ticket data last written for each world, to skip writing it again when nothing changed
+    private static Map<World, NBTTagCompound> savedTicketData = new MapMaker().weakKeys().makeMap();
     private static BiMap<UUID,Ticket> pendingEntities = HashBiMap.create();
 
     private static Map<World,Cache<Long, Chunk>> dormantChunkCache = new MapMaker().weakKeys().makeMap();
@@ -399,7 +403,8 @@ public class ForgeChunkManager
         ArrayListMultimap<String, Ticket> newTickets = ArrayListMultimap.<String, Ticket>create();
         tickets.put(world, newTickets);
 
-        forcedChunks.put(world, ImmutableSetMultimap.<ChunkCoordIntPair,Ticket>of());
+        forcedChunks.put(world, new ForcedChunkIndex());
+        savedTicketData.remove(world);
 
         if (!(world instanceof WorldServer))
         {
@@ -551,6 +556,7 @@ public class ForgeChunkManager
         }
 
         forcedChunks.remove(world);
+        savedTicketData.remove(world);
         dormantChunkCache.remove(world);
      // integrated server is shutting down
         if (!MinecraftServer.getServer().isServerRunning())
@@ -728,6 +734,22 @@ public class ForgeChunkManager
         {
             return;
         }
+        forceChunks(ticket, ImmutableList.of(chunk));
+    }
+
+    /**
+     * Force all the supplied chunk coordinates to be loaded by the supplied ticket, same as calling {@link #forceChunk(Ticket, ChunkCoordIntPair)}
+     * for each of them in order, but only checking the ticket once.
+     *
+     * @param ticket The ticket registering the chunks
+     * @param chunks The chunks to force
+     */
+    public static void forceChunks(Ticket ticket, Collection<ChunkCoordIntPair> chunks)
+    {
+        if (ticket == null || chunks == null || chunks.isEmpty())
+        {
+            return;
+        }
         if (ticket.ticketType == Type.ENTITY && ticket.entity == null)
         {
             throw new RuntimeException("Attempted to use an entity ticket to force a chunk, without an entity");
@@ -737,15 +759,25 @@ public class ForgeChunkManager
             FMLLog.severe("The mod %s attempted to force load a chunk with an invalid ticket. This is not permitted.", ticket.modId);
             return;
         }
-        ticket.requestedChunks.add(chunk);
-        MinecraftForge.EVENT_BUS.post(new ForceChunkEvent(ticket, chunk));
-
-        ImmutableSetMultimap<ChunkCoordIntPair, Ticket> newMap = ImmutableSetMultimap.<ChunkCoordIntPair,Ticket>builder().putAll(forcedChunks.get(ticket.world)).put(chunk, ticket).build();
-        forcedChunks.put(ticket.world, newMap);
-        if (ticket.maxDepth > 0 && ticket.requestedChunks.size() > ticket.maxDepth)
+        ForcedChunkIndex index = forcedChunks.get(ticket.world);
+        for (ChunkCoordIntPair chunk : chunks)
         {
-            ChunkCoordIntPair removed = ticket.requestedChunks.iterator().next();
-            unforceChunk(ticket,removed);
+            if (chunk == null)
+            {
+                continue;
+            }
+            ticket.requestedChunks.add(chunk);
+            MinecraftForge.EVENT_BUS.post(new ForceChunkEvent(ticket, chunk));
+
+            if (index != null)
+            {
+                index.add(chunk, ticket);
+            }
+            if (ticket.maxDepth > 0 && ticket.requestedChunks.size() > ticket.maxDepth)
+            {
+                ChunkCoordIntPair removed = ticket.requestedChunks.iterator().next();
+                unforceChunk(ticket,removed);
+            }
         }
     }
 
@@ -780,10 +812,11 @@ public class ForgeChunkManager
         }
         ticket.requestedChunks.remove(chunk);
         MinecraftForge.EVENT_BUS.post(new UnforceChunkEvent(ticket, chunk));
-        LinkedHashMultimap<ChunkCoordIntPair, Ticket> copy = LinkedHashMultimap.create(forcedChunks.get(ticket.world));
-        copy.remove(chunk, ticket);
-        ImmutableSetMultimap<ChunkCoordIntPair, Ticket> newMap = ImmutableSetMultimap.copyOf(copy);
-        forcedChunks.put(ticket.world,newMap);
+        ForcedChunkIndex index = forcedChunks.get(ticket.world);
+        if (index != null)
+        {
+            index.remove(chunk, ticket);
+        }
     }
 
     static void loadConfiguration()
@@ -814,7 +847,120 @@ public class ForgeChunkManager
      */
     public static ImmutableSetMultimap<ChunkCoordIntPair, Ticket> getPersistentChunksFor(World world)
     {
-        return forcedChunks.containsKey(world) ? forcedChunks.get(world) : ImmutableSetMultimap.<ChunkCoordIntPair,Ticket>of();
+        ForcedChunkIndex index = forcedChunks.get(world);
+        return index != null ? index.getSnapshot() : ImmutableSetMultimap.<ChunkCoordIntPair,Ticket>of();
+    }
+
+    /**
+     * Checks if any ticket forces the chunk, without allocating.
+     *
+     * @param world The world
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return true if the chunk is persistent
+     */
+    public static boolean isChunkForced(World world, int chunkX, int chunkZ)
+    {
+        ForcedChunkIndex index = forcedChunks.get(world);
+        return index != null && index.contains(chunkX, chunkZ);
+    }
+
+    /**
+     * @return how many tickets force the chunk
+     */
+    public static int getTicketCount(World world, ChunkCoordIntPair chunk)
+    {
+        ForcedChunkIndex index = forcedChunks.get(world);
+        return index != null ? index.getTicketCount(chunk) : 0;
+    }
+
+    /**
+     * The forced chunks of a world and the tickets forcing them. Changes are applied in place, the immutable
+     * view returned by {@link ForgeChunkManager#getPersistentChunksFor(World)} is rebuilt on the first request
+     * after a change.
+     *
+     * {@link #contains(int, int)} is checked for every entity every tick and takes no lock: the set of keys
+     * is never changed once published, a chunk becoming forced or unforced publishes a changed copy. That
+     * only happens when tickets change, which is rare.
+     */
+    private static class ForcedChunkIndex
+    {
+        private final SetMultimap<ChunkCoordIntPair, Ticket> chunks = LinkedHashMultimap.create();
+        // Keys of the forced chunks, see ChunkCoordIntPair.chunkXZ2Int, so checking a chunk does not need a ChunkCoordIntPair.
+        // Copied on write, written while holding this
+        private volatile LongHashSet keys = new LongHashSet();
+        // Null when out of date
+        private volatile ImmutableSetMultimap<ChunkCoordIntPair, Ticket> snapshot = ImmutableSetMultimap.of();
+
+        private static long key(ChunkCoordIntPair chunk)
+        {
+            return ChunkCoordIntPair.chunkXZ2Int(chunk.chunkXPos, chunk.chunkZPos);
+        }
+
+        private static LongHashSet copy(LongHashSet keys)
+        {
+            LongHashSet ret = new LongHashSet(keys.size() + 1);
+            for (Long key : keys)
+            {
+                ret.add(key.longValue());
+            }
+            return ret;
+        }
+
+        synchronized void add(ChunkCoordIntPair chunk, Ticket ticket)
+        {
+            if (chunks.put(chunk, ticket))
+            {
+                if (!keys.contains(key(chunk)))
+                {
+                    LongHashSet changed = copy(keys);
+                    changed.add(key(chunk));
+                    keys = changed;
+                }
+                snapshot = null;
+            }
+        }
+
+        synchronized void remove(ChunkCoordIntPair chunk, Ticket ticket)
+        {
+            if (chunks.remove(chunk, ticket))
+            {
+                if (!chunks.containsKey(chunk))
+                {
+                    LongHashSet changed = copy(keys);
+                    changed.remove(key(chunk));
+                    keys = changed;
+                }
+                snapshot = null;
+            }
+        }
+
+        boolean contains(int chunkX, int chunkZ)
+        {
+            return keys.contains(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        }
+
+        synchronized int getTicketCount(ChunkCoordIntPair chunk)
+        {
+            return chunks.get(chunk).size();
+        }
+
+        ImmutableSetMultimap<ChunkCoordIntPair, Ticket> getSnapshot()
+        {
+            ImmutableSetMultimap<ChunkCoordIntPair, Ticket> ret = snapshot;
+            if (ret == null)
+            {
+                synchronized (this)
+                {
+                    ret = snapshot;
+                    if (ret == null)
+                    {
+                        snapshot = ret = ImmutableSetMultimap.copyOf(chunks);
+                    }
+                }
+            }
+            return ret;
+        }
     }
 
     static void saveWorld(World world)
@@ -871,9 +1017,15 @@ public class ForgeChunkManager
                 }
             }
         }
+        // Tickets only change when mods change them, most saves would write the same data again
+        if (forcedChunkData.equals(savedTicketData.get(worldServer)) && chunkLoaderData.isFile())
+        {
+            return;
+        }
         try
         {
             CompressedStreamTools.write(forcedChunkData, chunkLoaderData);
+            savedTicketData.put(worldServer, (NBTTagCompound)forcedChunkData.copy());
         }
         catch (IOException e)
         {
@@ -896,7 +1048,7 @@ public class ForgeChunkManager
     public static void putDormantChunk(long coords, Chunk chunk)
     {
         Cache<Long, Chunk> cache = dormantChunkCache.get(chunk.worldObj);
-        if (cache != null)
+        if (cache != null && dormantChunkCacheSize > 0)
         {
             cache.put(coords, chunk);
         }
@@ -906,7 +1058,8 @@ public class ForgeChunkManager
     public static Chunk fetchDormantChunk(long coords, World world)
     {
         Cache<Long, Chunk> cache = dormantChunkCache.get(world);
-        if (cache == null)
+        // Called for every chunk that is not loaded, skip boxing the key when there is nothing to find
+        if (cache == null || cache.size() == 0)
         {
             return null;
         }
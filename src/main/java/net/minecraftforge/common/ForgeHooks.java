@@ -279,21 +279,25 @@ public class ForgeHooks
     //incurs a major performance penalty.
     public static void onLivingSetAttackTarget(EntityLivingBase entity, EntityLivingBase target)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingSetAttackTargetEvent.class)) return;
         MinecraftForge.EVENT_BUS.post(new LivingSetAttackTargetEvent(entity, target));
     }
 
     public static boolean onLivingUpdate(EntityLivingBase entity)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingUpdateEvent.class)) return false;
         return MinecraftForge.EVENT_BUS.post(new LivingUpdateEvent(entity));
     }
 
     public static boolean onLivingAttack(EntityLivingBase entity, DamageSource src, float amount)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingAttackEvent.class)) return false;
         return MinecraftForge.EVENT_BUS.post(new LivingAttackEvent(entity, src, amount));
     }
 
     public static float onLivingHurt(EntityLivingBase entity, DamageSource src, float amount)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingHurtEvent.class)) return amount;
         LivingHurtEvent event = new LivingHurtEvent(entity, src, amount);
         return (MinecraftForge.EVENT_BUS.post(event) ? 0 : event.ammount);
     }
@@ -310,6 +314,7 @@ public class ForgeHooks
 
     public static float onLivingFall(EntityLivingBase entity, float distance)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingFallEvent.class)) return distance;
         LivingFallEvent event = new LivingFallEvent(entity, distance);
         return (MinecraftForge.EVENT_BUS.post(event) ? 0.0f : event.distance);
     }
@@ -346,6 +351,7 @@ public class ForgeHooks
 
     public static void onLivingJump(EntityLivingBase entity)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingJumpEvent.class)) return;
         MinecraftForge.EVENT_BUS.post(new LivingJumpEvent(entity));
     }
 
@@ -432,6 +438,7 @@ public class ForgeHooks
 
     public static boolean canInteractWith(EntityPlayer player, Container openContainer)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(PlayerOpenContainerEvent.class)) return openContainer.canInteractWith(player);
         PlayerOpenContainerEvent event = new PlayerOpenContainerEvent(player, openContainer);
         MinecraftForge.EVENT_BUS.post(event);
         return event.getResult() == Event.Result.DEFAULT ? event.canInteractWith : event.getResult() == Event.Result.ALLOW ? true : false;
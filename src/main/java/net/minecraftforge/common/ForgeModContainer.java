@@ -24,10 +24,12 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.world.storage.SaveHandler;
 import net.minecraft.world.storage.WorldInfo;
 import net.minecraftforge.classloading.FMLForgePlugin;
+import net.minecraftforge.common.chunkio.MappedRegionFileCache;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.common.config.Property;
 import net.minecraftforge.common.network.ForgeNetworkHandler;
 import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.RecipeSorter;
 import net.minecraftforge.server.command.ForgeCommand;
 
@@ -51,6 +53,8 @@ import cpw.mods.fml.common.event.FMLModIdMappingEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppedEvent;
+import cpw.mods.fml.common.eventhandler.EventProfiler;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 import cpw.mods.fml.common.gameevent.PlayerEvent;
 import cpw.mods.fml.common.network.NetworkRegistry;
@@ -69,6 +73,10 @@ public class ForgeModContainer extends DummyModContainer implements WorldAccessC
     public static boolean disableVersionCheck = false;
     public static int defaultSpawnFuzz = 20;
     public static boolean defaultHasSpawnFuzz = true;
+    public static int eventProfilerDumpInterval = 60;
+    public static boolean useMappedRegionFiles = false;
+    public static boolean parallelDimensionTicking = false;
+    public static int dimensionTickThreads = 0;
 
     private static Configuration config;
 
@@ -221,6 +229,32 @@ public class ForgeModContainer extends DummyModContainer implements WorldAccessC
         defaultHasSpawnFuzz = prop.getBoolean(Boolean.TRUE);
         propOrder.add(prop.getName());
 
+        prop = config.get(Configuration.CATEGORY_GENERAL, "eventProfilerDumpInterval", 60,
+                "Seconds between writes of eventprofile.txt while the event profiler is running (/forge events start). 0 disables the periodic dump.",
+                0, Integer.MAX_VALUE);
+        prop.setLanguageKey("forge.configgui.eventProfilerDumpInterval").setRequiresWorldRestart(false);
+        eventProfilerDumpInterval = prop.getInt(60);
+        propOrder.add(prop.getName());
+
+        prop = config.get(Configuration.CATEGORY_GENERAL, "useMappedRegionFiles", false,
+                "Set to true to access region files through a memory mapped header, allowing chunks of one region to be read concurrently. The file format is unchanged. MUST RESTART MINECRAFT IF CHANGED FROM THE CONFIG GUI.");
+        prop.setLanguageKey("forge.configgui.useMappedRegionFiles").setRequiresMcRestart(true);
+        useMappedRegionFiles = prop.getBoolean(false);
+        propOrder.add(prop.getName());
+
+        prop = config.get(Configuration.CATEGORY_GENERAL, "parallelDimensionTicking", false,
+                "Set to true to tick the dimensions of the server in parallel. Teleports to other dimensions are delayed until all dimensions ticked. EXPERIMENTAL: only the known vanilla state shared by the dimensions is guarded, command blocks changing game rules or players in other dimensions are not safe. ONLY USE WITH MODS KNOWN TO BE THREAD SAFE.");
+        prop.setLanguageKey("forge.configgui.parallelDimensionTicking").setRequiresWorldRestart(false);
+        parallelDimensionTicking = prop.getBoolean(false);
+        propOrder.add(prop.getName());
+
+        prop = config.get(Configuration.CATEGORY_GENERAL, "dimensionTickThreads", 0,
+                "Number of threads ticking dimensions with parallelDimensionTicking, 0 uses one per processor. MUST RESTART MINECRAFT IF CHANGED FROM THE CONFIG GUI.",
+                0, 64);
+        prop.setLanguageKey("forge.configgui.dimensionTickThreads").setRequiresMcRestart(true);
+        dimensionTickThreads = prop.getInt(0);
+        propOrder.add(prop.getName());
+
         config.setCategoryPropertyOrder(CATEGORY_GENERAL, propOrder);
 
         if (config.hasChanged())
@@ -276,6 +310,13 @@ public class ForgeModContainer extends DummyModContainer implements WorldAccessC
         MinecraftForge.EVENT_BUS.register(MinecraftForge.INTERNAL_HANDLER);
         ForgeChunkManager.captureConfig(evt.getModConfigurationDirectory());
         FMLCommonHandler.instance().bus().register(this);
+        MappedRegionFileCache.enabled = useMappedRegionFiles;
+
+        if (EventProfiler.isEnabled())
+        {
+            // Started with -Dfml.eventProfiler=true, dump to the same file as /forge events start does
+            EventProfiler.setDumpFile(new File(evt.getModConfigurationDirectory().getParentFile(), "eventprofile.txt"), eventProfilerDumpInterval);
+        }
 
         if (!ForgeModContainer.disableVersionCheck)
         {
@@ -298,6 +339,7 @@ public class ForgeModContainer extends DummyModContainer implements WorldAccessC
             RecipeSorter.sortCraftManager();
         }
         FluidRegistry.validateFluidRegistry();
+        OreDictionary.rebakeMap();
     }
 
     @Subscribe
@@ -305,6 +347,13 @@ public class ForgeModContainer extends DummyModContainer implements WorldAccessC
     {
         evt.registerServerCommand(new ForgeCommand(evt.getServer()));
     }
+
+    @Subscribe
+    public void serverStopped(FMLServerStoppedEvent evt)
+    {
+        // The worlds have been flushed by now, release the mapped region files like the vanilla cache is
+        MappedRegionFileCache.clear();
+    }
     @Override
     public NBTTagCompound getDataForWriting(SaveHandler handler, WorldInfo info)
     {
@@ -326,7 +375,7 @@ public class ForgeModContainer extends DummyModContainer implements WorldAccessC
     public void mappingChanged(FMLModIdMappingEvent evt)
     {
         Blocks.fire.rebuildFireInfo();
-//        OreDictionary.rebakeMap();
+        OreDictionary.rebakeMap();
     }
 
 
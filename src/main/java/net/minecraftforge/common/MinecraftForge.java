@@ -7,6 +7,7 @@ import com.google.common.collect.ObjectArrays;
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.FMLLog;
 import cpw.mods.fml.common.Loader;
+import cpw.mods.fml.common.eventhandler.AsyncEventBus;
 import cpw.mods.fml.common.eventhandler.EventBus;
 import cpw.mods.fml.relauncher.Side;
 import net.minecraft.crash.CrashReport;
@@ -23,9 +24,9 @@ public class MinecraftForge
      * This replaces every register*Handler() function in the old version of Forge.
      * TERRAIN_GEN_BUS for terrain gen events
      * ORE_GEN_BUS for ore gen events
-     * EVENT_BUS for everything else
+     * EVENT_BUS for everything else, listeners on it may ask for async delivery, see {@link AsyncEventBus}
      */
-    public static final EventBus EVENT_BUS = new EventBus();
+    public static final EventBus EVENT_BUS = new AsyncEventBus("Forge", 2, 1024);
     public static final EventBus TERRAIN_GEN_BUS = new EventBus();
     public static final EventBus ORE_GEN_BUS = new EventBus();
     public static final String MC_VERSION = Loader.MC_VERSION;
@@ -4,16 +4,28 @@ import net.minecraftforge.common.util.AsynchronousExecutor;
 
 public class ChunkIOExecutor {
     static final int BASE_THREADS = 1;
-    static final int PLAYERS_PER_THREAD = 50;
+    static final int MAX_THREADS = Math.max(BASE_THREADS, Runtime.getRuntime().availableProcessors());
+    // How often queued loads are re-sorted by player distance and the pool is resized
+    static final int REPRIORITIZE_INTERVAL = 10;
+    // The pool is sized so the current queue would drain in about this long
+    static final long TARGET_DRAIN_TIME = 100 * 1000 * 1000L;
 
     private static final AsynchronousExecutor<QueuedChunk, net.minecraft.world.chunk.Chunk, Runnable, RuntimeException> instance = new AsynchronousExecutor<QueuedChunk, net.minecraft.world.chunk.Chunk, Runnable, RuntimeException>(new ChunkIOProvider(), BASE_THREADS);
+    private static int ticks = 0;
 
     public static net.minecraft.world.chunk.Chunk syncChunkLoad(net.minecraft.world.World world, net.minecraft.world.chunk.storage.AnvilChunkLoader loader, net.minecraft.world.gen.ChunkProviderServer provider, int x, int z) {
-        return instance.getSkipQueue(new QueuedChunk(x, z, loader, world, provider));
+        long start = System.nanoTime();
+        try {
+            return instance.getSkipQueue(new QueuedChunk(x, z, loader, world, provider));
+        } finally {
+            ChunkIOStats.get(world).syncLoad.record(System.nanoTime() - start);
+        }
     }
 
     public static void queueChunkLoad(net.minecraft.world.World world, net.minecraft.world.chunk.storage.AnvilChunkLoader loader, net.minecraft.world.gen.ChunkProviderServer provider, int x, int z, Runnable runnable) {
-        instance.add(new QueuedChunk(x, z, loader, world, provider), runnable);
+        QueuedChunk chunk = new QueuedChunk(x, z, loader, world, provider);
+        chunk.queued = System.nanoTime();
+        instance.add(chunk, runnable);
     }
 
     // Abuses the fact that hashCode and equals for QueuedChunk only use world and coords
@@ -21,12 +33,42 @@ public class ChunkIOExecutor {
         instance.drop(new QueuedChunk(x, z, null, world, null), runnable);
     }
 
+    /**
+     * The pool is now sized from queue depth and load times in {@link #tick()}.
+     */
+    @Deprecated
     public static void adjustPoolSize(int players) {
-        int size = Math.max(BASE_THREADS, (int) Math.ceil(players / PLAYERS_PER_THREAD));
-        instance.setActiveThreads(size);
+    }
+
+    static void adjustPoolSize() {
+        int queued = instance.getQueueSize();
+        long average = instance.getAverageStage1Time();
+        int size = (int) Math.min(MAX_THREADS, Math.max(BASE_THREADS, (queued * average + TARGET_DRAIN_TIME - 1) / TARGET_DRAIN_TIME));
+        if (size != instance.getActiveThreads()) {
+            instance.setActiveThreads(size);
+        }
+    }
+
+    public static int getQueueSize() {
+        return instance.getQueueSize();
+    }
+
+    public static int getActiveThreads() {
+        return instance.getActiveThreads();
+    }
+
+    /**
+     * @return a moving average of the time an IO thread spends loading one chunk, in nanoseconds
+     */
+    public static long getAverageStage1Time() {
+        return instance.getAverageStage1Time();
     }
 
     public static void tick() {
         instance.finishActive();
+        if (++ticks % REPRIORITIZE_INTERVAL == 0) {
+            instance.reprioritize();
+            adjustPoolSize();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,31 @@
 package net.minecraftforge.common.chunkio;
 
 
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.MathHelper;
 import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.util.AsynchronousExecutor;
 import net.minecraftforge.event.world.ChunkDataEvent;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
-class ChunkIOProvider implements AsynchronousExecutor.CallBackProvider<QueuedChunk, net.minecraft.world.chunk.Chunk, Runnable, RuntimeException> {
+class ChunkIOProvider implements AsynchronousExecutor.CallBackProvider<QueuedChunk, net.minecraft.world.chunk.Chunk, Runnable, RuntimeException>, AsynchronousExecutor.PriorityProvider<QueuedChunk> {
     private final AtomicInteger threadNumber = new AtomicInteger(1);
 
     // async stuff
     public net.minecraft.world.chunk.Chunk callStage1(QueuedChunk queuedChunk) throws RuntimeException {
         net.minecraft.world.chunk.storage.AnvilChunkLoader loader = queuedChunk.loader;
         Object[] data = null;
+        long start = ChunkIOStats.beginStage1();
         try {
             data = loader.loadChunk__Async(queuedChunk.world, queuedChunk.x, queuedChunk.z);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        ChunkIOStats.recordStage1(queuedChunk, start, System.nanoTime());
 
         if (data != null) {
             queuedChunk.compound = (net.minecraft.nbt.NBTTagCompound) data[1];
@@ -32,6 +37,15 @@ class ChunkIOProvider implements AsynchronousExecutor.CallBackProvider<QueuedChu
 
     // sync stuff
     public void callStage2(QueuedChunk queuedChunk, net.minecraft.world.chunk.Chunk chunk) throws RuntimeException {
+        long start = System.nanoTime();
+        try {
+            finishLoad(queuedChunk, chunk);
+        } finally {
+            ChunkIOStats.get(queuedChunk.world).stage2.record(System.nanoTime() - start);
+        }
+    }
+
+    private void finishLoad(QueuedChunk queuedChunk, net.minecraft.world.chunk.Chunk chunk) {
         if(chunk == null) {
             // If the chunk loading failed just do it synchronously (may generate)
             queuedChunk.provider.originalLoadChunk(queuedChunk.x, queuedChunk.z);
@@ -56,6 +70,19 @@ class ChunkIOProvider implements AsynchronousExecutor.CallBackProvider<QueuedChu
         runnable.run();
     }
 
+    // Squared chunk distance to the closest player in the world, chunks next to a player load first
+    public long getPriority(QueuedChunk queuedChunk) {
+        long closest = Long.MAX_VALUE;
+        List<?> players = queuedChunk.world.playerEntities;
+        for (int i = 0; i < players.size(); i++) {
+            EntityPlayer player = (EntityPlayer) players.get(i);
+            long dx = (MathHelper.floor_double(player.posX) >> 4) - queuedChunk.x;
+            long dz = (MathHelper.floor_double(player.posZ) >> 4) - queuedChunk.z;
+            closest = Math.min(closest, dx * dx + dz * dz);
+        }
+        return closest;
+    }
+
     public Thread newThread(Runnable runnable) {
         Thread thread = new Thread(runnable, "Chunk I/O Executor Thread-" + threadNumber.getAndIncrement());
         thread.setDaemon(true);
@@ -0,0 +1,253 @@
+package net.minecraftforge.common.chunkio;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.logging.log4j.Level;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Latency histograms and counters for chunk loading, kept per dimension.
+ *
+ * Reported by /forge chunkio and exported over JMX as net.minecraftforge:type=ChunkIO.
+ */
+public class ChunkIOStats {
+    private static final ConcurrentHashMap<Integer, ChunkIOStats> dimensions = new ConcurrentHashMap<Integer, ChunkIOStats>();
+    // Set by the loader once the chunk data is read, so stage 1 can be split into read and decode time
+    private static final ThreadLocal<long[]> decodeStart = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    public final int dimension;
+    /** Time from queueing a load until an IO thread picks it up */
+    public final Histogram queueWait = new Histogram();
+    /** Time spent reading and inflating the chunk NBT */
+    public final Histogram read = new Histogram();
+    /** Time spent turning the NBT into a chunk */
+    public final Histogram decode = new Histogram();
+    /** Main thread time spent finishing an async load */
+    public final Histogram stage2 = new Histogram();
+    /** Main thread time spent in loads that could not wait for the IO threads */
+    public final Histogram syncLoad = new Histogram();
+    private final AtomicLong loads = new AtomicLong();
+
+    private ChunkIOStats(int dimension) {
+        this.dimension = dimension;
+    }
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new MBean(), ChunkIOMBean.class), new ObjectName("net.minecraftforge:type=ChunkIO"));
+        } catch (Exception e) {
+            FMLLog.log(Level.WARN, e, "Failed to register the chunk IO MBean");
+        }
+    }
+
+    public static ChunkIOStats get(int dimension) {
+        ChunkIOStats stats = dimensions.get(dimension);
+        if (stats == null) {
+            ChunkIOStats created = new ChunkIOStats(dimension);
+            stats = dimensions.putIfAbsent(dimension, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    public static ChunkIOStats get(net.minecraft.world.World world) {
+        return get(world.provider.dimensionId);
+    }
+
+    /**
+     * @return the stats of every dimension that loaded chunks so far, ordered by dimension id
+     */
+    public static List<ChunkIOStats> getAll() {
+        List<ChunkIOStats> ret = new ArrayList<ChunkIOStats>(dimensions.values());
+        Collections.sort(ret, new java.util.Comparator<ChunkIOStats>() {
+            public int compare(ChunkIOStats a, ChunkIOStats b) {
+                return a.dimension < b.dimension ? -1 : (a.dimension == b.dimension ? 0 : 1);
+            }
+        });
+        return ret;
+    }
+
+    public static void resetAll() {
+        dimensions.clear();
+    }
+
+    /**
+     * @return how many chunks were read, on either the IO threads or the main thread
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public long getSyncLoads() {
+        return syncLoad.getCount();
+    }
+
+    /**
+     * Marks the end of reading the chunk data on the current thread, called by the chunk loader.
+     */
+    public static void markDecodeStart() {
+        decodeStart.get()[0] = System.nanoTime();
+    }
+
+    static long beginStage1() {
+        decodeStart.get()[0] = 0;
+        return System.nanoTime();
+    }
+
+    static void recordStage1(QueuedChunk queuedChunk, long start, long end) {
+        long[] mark = decodeStart.get();
+        ChunkIOStats stats = get(queuedChunk.world);
+        stats.loads.incrementAndGet();
+        if (queuedChunk.queued != 0) {
+            stats.queueWait.record(start - queuedChunk.queued);
+        }
+        if (mark[0] != 0) {
+            stats.read.record(mark[0] - start);
+            stats.decode.record(end - mark[0]);
+        } else {
+            // Missing or unreadable chunk, all of it was spent reading
+            stats.read.record(end - start);
+        }
+    }
+
+    public static String report() {
+        StringBuilder ret = new StringBuilder();
+        ret.append(String.format("Queued: %d, threads: %d, average stage 1: %.3f ms%n", ChunkIOExecutor.getQueueSize(), ChunkIOExecutor.getActiveThreads(), ChunkIOExecutor.getAverageStage1Time() / 1.0E6D));
+        for (ChunkIOStats stats : getAll()) {
+            ret.append(String.format("Dim %d: %d loads, %d sync loads%n", stats.dimension, stats.getLoads(), stats.getSyncLoads()));
+            ret.append("  queue wait ").append(stats.queueWait).append(String.format("%n"));
+            ret.append("  read       ").append(stats.read).append(String.format("%n"));
+            ret.append("  decode     ").append(stats.decode).append(String.format("%n"));
+            ret.append("  stage 2    ").append(stats.stage2).append(String.format("%n"));
+            ret.append("  sync load  ").append(stats.syncLoad).append(String.format("%n"));
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Lock free histogram of durations, bucketed by powers of two of microseconds.
+     */
+    public static class Histogram {
+        private static final int BUCKETS = 32;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private volatile long max;
+
+        public void record(long nanos) {
+            long micros = Math.max(nanos / 1000, 0);
+            buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            if (nanos > max) {
+                // Racy, a concurrent larger sample may be lost
+                max = nanos;
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalNanos() {
+            return total.get();
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /**
+         * @return the upper bound of the bucket holding the given percentile, in microseconds
+         */
+        public long getPercentileMicros(double percentile) {
+            long target = (long) Math.ceil(count.get() * percentile / 100.0D);
+            long seen = 0;
+            for (int x = 0; x < BUCKETS; x++) {
+                seen += buckets.get(x);
+                if (seen >= target && seen > 0) {
+                    return 1L << x;
+                }
+            }
+            return max / 1000;
+        }
+
+        @Override
+        public String toString() {
+            long n = count.get();
+            return String.format("n=%d avg=%.3fms p50<=%.3fms p99<=%.3fms max=%.3fms", n, n == 0 ? 0 : total.get() / 1.0E6D / n,
+                    getPercentileMicros(50) / 1000.0D, getPercentileMicros(99) / 1000.0D, max / 1.0E6D);
+        }
+    }
+
+    public static interface ChunkIOMBean {
+        int getQueueSize();
+
+        int getActiveThreads();
+
+        long getAverageStage1Nanos();
+
+        long getLoads();
+
+        long getSyncLoads();
+
+        String getReport();
+
+        void reset();
+    }
+
+    private static class MBean implements ChunkIOMBean {
+        public int getQueueSize() {
+            return ChunkIOExecutor.getQueueSize();
+        }
+
+        public int getActiveThreads() {
+            return ChunkIOExecutor.getActiveThreads();
+        }
+
+        public long getAverageStage1Nanos() {
+            return ChunkIOExecutor.getAverageStage1Time();
+        }
+
+        public long getLoads() {
+            long ret = 0;
+            for (ChunkIOStats stats : dimensions.values()) {
+                ret += stats.getLoads();
+            }
+            return ret;
+        }
+
+        public long getSyncLoads() {
+            long ret = 0;
+            for (ChunkIOStats stats : dimensions.values()) {
+                ret += stats.getSyncLoads();
+            }
+            return ret;
+        }
+
+        public String getReport() {
+            return report();
+        }
+
+        public void reset() {
+            resetAll();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.minecraftforge.common.chunkio;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+
+import cpw.mods.fml.common.FMLLog;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+import net.minecraft.world.chunk.storage.RegionFileCache;
+import net.minecraft.world.storage.IThreadedFileIO;
+import net.minecraft.world.storage.ThreadedFileIOBase;
+
+/**
+ * Pending chunk saves of one {@link AnvilChunkLoader}, replacing its pending list.
+ *
+ * Saves are indexed by chunk coordinate so loads can find unwritten data without scanning,
+ * saving a chunk that is still pending replaces the queued data instead of writing twice,
+ * and the file IO thread writes all pending chunks of one region file per pass.
+ * A save stays visible to {@link #get(int, int)} until its data has been written.
+ */
+public class ChunkSaveQueue implements IThreadedFileIO {
+    private final AnvilChunkLoader loader;
+    private final ConcurrentHashMap<Long, PendingSave> pending = new ConcurrentHashMap<Long, PendingSave>();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile long averageWriteLag = 0;
+
+    private static class PendingSave {
+        final int x;
+        final int z;
+        final NBTTagCompound data;
+        final long queued;
+
+        PendingSave(int x, int z, NBTTagCompound data) {
+            this.x = x;
+            this.z = z;
+            this.data = data;
+            this.queued = System.nanoTime();
+        }
+    }
+
+    public ChunkSaveQueue(AnvilChunkLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Queues the chunk data to be written by the file IO thread. This should always be synchronous.
+     */
+    public void queue(int x, int z, NBTTagCompound data) {
+        if (pending.put(ChunkCoordIntPair.chunkXZ2Int(x, z), new PendingSave(x, z, data)) != null) {
+            coalesced.incrementAndGet();
+        }
+        ThreadedFileIOBase.threadedIOInstance.queueIO(this);
+    }
+
+    /**
+     * @return the data waiting to be written for the chunk, or null if it has none
+     */
+    public NBTTagCompound get(int x, int z) {
+        PendingSave save = pending.get(ChunkCoordIntPair.chunkXZ2Int(x, z));
+        return save == null ? null : save.data;
+    }
+
+    public boolean contains(int x, int z) {
+        return pending.containsKey(ChunkCoordIntPair.chunkXZ2Int(x, z));
+    }
+
+    /**
+     * Writes every pending chunk in the region of the longest waiting save. The map has no order,
+     * so the oldest save is looked for by its queue time, otherwise a region that keeps getting
+     * saves could hold back the others. Synchronized since AnvilChunkLoader.saveExtraData drains
+     * the queue from the server thread while the file IO thread may still be writing, and an older
+     * save must not be written over a newer one.
+     *
+     * @return true if more chunks are pending
+     */
+    @Override
+    public synchronized boolean writeNextIO() {
+        PendingSave oldest = null;
+        for (PendingSave save : pending.values()) {
+            if (oldest == null || save.queued - oldest.queued < 0) {
+                oldest = save;
+            }
+        }
+        if (oldest == null) {
+            return false;
+        }
+
+        List<PendingSave> batch = new ArrayList<PendingSave>();
+        int regionX = oldest.x >> 5;
+        int regionZ = oldest.z >> 5;
+        for (PendingSave save : pending.values()) {
+            if (save.x >> 5 == regionX && save.z >> 5 == regionZ) {
+                batch.add(save);
+            }
+        }
+
+        for (PendingSave save : batch) {
+            try {
+                DataOutputStream out = MappedRegionFileCache.enabled ? MappedRegionFileCache.getChunkOutputStream(loader.chunkSaveLocation, save.x, save.z)
+                        : RegionFileCache.getChunkOutputStream(loader.chunkSaveLocation, save.x, save.z);
+                CompressedStreamTools.write(save.data, out);
+                out.close();
+            } catch (IOException e) {
+                FMLLog.log(Level.ERROR, e, "Failed to save chunk %d, %d in %s", save.x, save.z, loader.chunkSaveLocation);
+            }
+            // A newer save queued meanwhile stays pending for the next pass
+            pending.remove(ChunkCoordIntPair.chunkXZ2Int(save.x, save.z), save);
+            written.incrementAndGet();
+            long lag = System.nanoTime() - save.queued;
+            averageWriteLag += (lag - averageWriteLag) >> 4;
+        }
+
+        return !pending.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return how many saves replaced data that was still waiting to be written
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return a moving average of the time between queueing and writing a chunk, in nanoseconds
+     */
+    public long getAverageWriteLag() {
+        return averageWriteLag;
+    }
+}
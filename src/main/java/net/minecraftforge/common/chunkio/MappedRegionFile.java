@@ -0,0 +1,273 @@
+package net.minecraftforge.common.chunkio;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.logging.log4j.Level;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Anvil region file using a memory mapped header and positional channel IO.
+ *
+ * The on disk format is the same as {@link net.minecraft.world.chunk.storage.RegionFile}.
+ * Lookups and reads take no lock, so any number of threads can read one region at once.
+ * Writes are serialized per region and never overwrite sectors in use: a chunk is written
+ * to free sectors first, then its header entry is switched over and its old sectors freed.
+ * Readers check the entry version after reading and retry if the chunk was moved meanwhile.
+ */
+public class MappedRegionFile {
+    private static final int SECTOR_BYTES = 4096;
+    private static final int SECTOR_INTS = SECTOR_BYTES / 4;
+    private static final int MAX_SECTORS = 255;
+    private static final int MAX_READ_ATTEMPTS = 8;
+
+    private final File file;
+    private final RandomAccessFile dataFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final AtomicIntegerArray offsets = new AtomicIntegerArray(SECTOR_INTS);
+    private final AtomicIntegerArray versions = new AtomicIntegerArray(SECTOR_INTS);
+    // Guarded by this, only touched by writers
+    private final BitSet usedSectors = new BitSet();
+    private int sectorCount;
+    // Guarded by this, the header is unmapped once set
+    private boolean closed;
+
+    public MappedRegionFile(File file) throws IOException {
+        this.file = file;
+        this.dataFile = new RandomAccessFile(file, "rw");
+        this.channel = dataFile.getChannel();
+
+        long length = channel.size();
+        if (length < SECTOR_BYTES * 2) {
+            writeFully(ByteBuffer.allocate((int) (SECTOR_BYTES * 2 - length)), length);
+        } else if ((length & (SECTOR_BYTES - 1)) != 0) {
+            writeFully(ByteBuffer.allocate((int) (SECTOR_BYTES - (length & (SECTOR_BYTES - 1)))), length);
+        }
+
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, SECTOR_BYTES * 2);
+        this.sectorCount = (int) (channel.size() / SECTOR_BYTES);
+        usedSectors.set(0, 2);
+
+        for (int i = 0; i < SECTOR_INTS; i++) {
+            int offset = header.getInt(i * 4);
+            offsets.set(i, offset);
+            if (offset != 0 && (offset >> 8) + (offset & 255) <= sectorCount) {
+                usedSectors.set(offset >> 8, (offset >> 8) + (offset & 255));
+            }
+        }
+    }
+
+    private static boolean outOfBounds(int x, int z) {
+        return x < 0 || x >= 32 || z < 0 || z >= 32;
+    }
+
+    public boolean chunkExists(int x, int z) {
+        if (outOfBounds(x, z)) return false;
+
+        int offset = offsets.get(x + z * 32);
+        if (offset == 0) return false;
+
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(5);
+            if (!readFully(buf, (long) (offset >> 8) * SECTOR_BYTES)) return false;
+            int length = buf.getInt(0);
+            byte version = buf.get(4);
+            return length > 0 && length <= SECTOR_BYTES * (offset & 255) && (version == 1 || version == 2);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return a stream of the uncompressed chunk data, or null if the chunk is not in this region or can not be read
+     */
+    public DataInputStream getChunkDataInputStream(int x, int z) {
+        if (outOfBounds(x, z)) return null;
+
+        int index = x + z * 32;
+        try {
+            for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+                int version = versions.get(index);
+                int offset = offsets.get(index);
+                if (offset == 0) return null;
+
+                int numSectors = offset & 255;
+                ByteBuffer buf = ByteBuffer.allocate(numSectors * SECTOR_BYTES);
+                boolean complete = readFully(buf, (long) (offset >> 8) * SECTOR_BYTES);
+                if (versions.get(index) != version) {
+                    // Rewritten while we were reading, the sectors may already belong to another chunk
+                    continue;
+                }
+                if (!complete) return null;
+
+                int length = buf.getInt(0);
+                if (length <= 0 || length > SECTOR_BYTES * numSectors - 4) return null;
+
+                byte compression = buf.get(4);
+                ByteArrayInputStream in = new ByteArrayInputStream(buf.array(), 5, length - 1);
+                if (compression == 1) {
+                    return new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+                } else if (compression == 2) {
+                    return new DataInputStream(new BufferedInputStream(new InflaterInputStream(in)));
+                }
+                return null;
+            }
+            FMLLog.log(Level.WARN, "Chunk %d, %d in %s kept changing while being read, giving up", x, z, file);
+        } catch (IOException e) {
+            FMLLog.log(Level.ERROR, e, "Failed to read chunk %d, %d from %s", x, z, file);
+        }
+        return null;
+    }
+
+    /**
+     * @return a stream that deflates and writes the chunk when closed, or null if the chunk is not in this region
+     */
+    public DataOutputStream getChunkDataOutputStream(int x, int z) {
+        return outOfBounds(x, z) ? null : new DataOutputStream(new DeflaterOutputStream(new ChunkBuffer(x, z)));
+    }
+
+    protected synchronized void write(int x, int z, byte[] data, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Region file " + file + " is closed");
+        }
+        int index = x + z * 32;
+        int sectorsNeeded = (length + 5) / SECTOR_BYTES + 1;
+        if (sectorsNeeded > MAX_SECTORS) {
+            FMLLog.log(Level.ERROR, "Chunk %d, %d in %s is too large to save (%d bytes)", x, z, file, length);
+            return;
+        }
+
+        int sector = allocate(sectorsNeeded);
+        ByteBuffer buf = ByteBuffer.allocate(sectorsNeeded * SECTOR_BYTES);
+        buf.putInt(length + 1);
+        buf.put((byte) 2);
+        buf.put(data, 0, length);
+        buf.clear();
+        writeFully(buf, (long) sector * SECTOR_BYTES);
+
+        int newOffset = sector << 8 | sectorsNeeded;
+        int oldOffset = offsets.getAndSet(index, newOffset);
+        versions.incrementAndGet(index);
+        header.putInt(index * 4, newOffset);
+        header.putInt(SECTOR_BYTES + index * 4, (int) (System.currentTimeMillis() / 1000L));
+
+        if (oldOffset != 0 && (oldOffset >> 8) + (oldOffset & 255) <= sectorCount) {
+            usedSectors.clear(oldOffset >> 8, (oldOffset >> 8) + (oldOffset & 255));
+        }
+    }
+
+    /**
+     * Marks the first run of free sectors long enough as used, growing the file if there is none.
+     */
+    private int allocate(int count) {
+        int start = usedSectors.nextClearBit(2);
+        while (start + count <= sectorCount) {
+            int used = usedSectors.nextSetBit(start);
+            if (used == -1 || used >= start + count) {
+                usedSectors.set(start, start + count);
+                return start;
+            }
+            start = usedSectors.nextClearBit(used);
+        }
+        usedSectors.set(start, start + count);
+        sectorCount = Math.max(sectorCount, start + count);
+        return start;
+    }
+
+    /**
+     * @return false if the end of the file was reached before the buffer was filled
+     */
+    private boolean readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int read = channel.read(buf, position);
+            if (read < 0) return false;
+            position += read;
+        }
+        return true;
+    }
+
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+    }
+
+    /**
+     * Flushes and unmaps the header and closes the file. Reads started before fail with an IOException,
+     * later writes throw one.
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            header.force();
+            unmap(header);
+        }
+        dataFile.close();
+    }
+
+    /**
+     * Releases the mapping right away instead of whenever the buffer is collected, the file can not be
+     * deleted or replaced on Windows while it is mapped. The buffer must not be used afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (NoSuchMethodException e) {
+            // Java 8 and earlier, below
+        } catch (Exception e) {
+            FMLLog.log(Level.DEBUG, e, "Failed to unmap the header of a region file");
+            return;
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            FMLLog.log(Level.DEBUG, e, "Failed to unmap the header of a region file");
+        }
+    }
+
+    class ChunkBuffer extends ByteArrayOutputStream {
+        private final int x;
+        private final int z;
+
+        ChunkBuffer(int x, int z) {
+            super(8096);
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public void close() throws IOException {
+            MappedRegionFile.this.write(x, z, buf, count);
+        }
+    }
+}
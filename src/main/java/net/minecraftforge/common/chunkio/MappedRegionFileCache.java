@@ -0,0 +1,157 @@
+package net.minecraftforge.common.chunkio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.logging.log4j.Level;
+
+import cpw.mods.fml.common.FMLLog;
+
+/**
+ * Open {@link MappedRegionFile}s, the counterpart of the vanilla RegionFileCache.
+ *
+ * Only used while {@link #enabled} is set, which is decided once at startup from the forge config.
+ * A region must never be open here and in the vanilla cache at the same time, as neither sees the
+ * header changes of the other.
+ *
+ * Every read and write holds its region for as long as it uses it. Once more than {@link #MAX_OPEN}
+ * regions are open the least recently used ones nobody holds are closed, a region in use is never
+ * closed under another thread.
+ */
+public class MappedRegionFileCache {
+    private static final int MAX_OPEN = 256;
+    // Access ordered, so iteration starts at the least recently used region. Guarded by itself.
+    private static final LinkedHashMap<File, OpenRegion> regions = new LinkedHashMap<File, OpenRegion>(16, 0.75f, true);
+
+    public static volatile boolean enabled = false;
+
+    private static class OpenRegion {
+        final MappedRegionFile region;
+        // Reads and writes using the region right now, guarded by regions
+        int users;
+        // Dropped from the cache by clear() while in use, closed by the last user
+        boolean closing;
+
+        OpenRegion(MappedRegionFile region) {
+            this.region = region;
+        }
+    }
+
+    private static OpenRegion acquire(File worldDir, int chunkX, int chunkZ) throws IOException {
+        File regionDir = new File(worldDir, "region");
+        File file = new File(regionDir, "r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca");
+
+        synchronized (regions) {
+            OpenRegion open = regions.get(file);
+            if (open == null) {
+                if (!regionDir.exists()) {
+                    regionDir.mkdirs();
+                }
+                if (regions.size() >= MAX_OPEN) {
+                    evictIdle();
+                }
+                open = new OpenRegion(new MappedRegionFile(file));
+                regions.put(file, open);
+            }
+            open.users++;
+            return open;
+        }
+    }
+
+    private static void release(OpenRegion open) {
+        synchronized (regions) {
+            if (--open.users > 0 || !open.closing) {
+                return;
+            }
+        }
+        close(open);
+    }
+
+    /**
+     * Closes the least recently used regions nobody holds until there is room for one more. Goes
+     * over the limit if every open region is in use.
+     */
+    private static void evictIdle() {
+        Iterator<OpenRegion> itr = regions.values().iterator();
+        while (regions.size() >= MAX_OPEN && itr.hasNext()) {
+            OpenRegion open = itr.next();
+            if (open.users == 0) {
+                itr.remove();
+                close(open);
+            }
+        }
+    }
+
+    private static void close(OpenRegion open) {
+        try {
+            open.region.close();
+        } catch (IOException e) {
+            FMLLog.log(Level.ERROR, e, "Failed to close region file");
+        }
+    }
+
+    public static boolean chunkExists(File worldDir, int chunkX, int chunkZ) {
+        OpenRegion open;
+        try {
+            open = acquire(worldDir, chunkX, chunkZ);
+        } catch (IOException e) {
+            FMLLog.log(Level.ERROR, e, "Failed to open region file for chunk %d, %d in %s", chunkX, chunkZ, worldDir);
+            return false;
+        }
+        try {
+            return open.region.chunkExists(chunkX & 31, chunkZ & 31);
+        } finally {
+            release(open);
+        }
+    }
+
+    public static DataInputStream getChunkInputStream(File worldDir, int chunkX, int chunkZ) throws IOException {
+        OpenRegion open = acquire(worldDir, chunkX, chunkZ);
+        try {
+            // The chunk is read completely here, the stream does not touch the region anymore
+            return open.region.getChunkDataInputStream(chunkX & 31, chunkZ & 31);
+        } finally {
+            release(open);
+        }
+    }
+
+    /**
+     * @return a stream that deflates the chunk and writes it when closed, the region is only held while writing
+     */
+    public static DataOutputStream getChunkOutputStream(final File worldDir, final int chunkX, final int chunkZ) {
+        return new DataOutputStream(new DeflaterOutputStream(new ByteArrayOutputStream(8096) {
+            @Override
+            public void close() throws IOException {
+                OpenRegion open = acquire(worldDir, chunkX, chunkZ);
+                try {
+                    open.region.write(chunkX & 31, chunkZ & 31, buf, count);
+                } finally {
+                    release(open);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Closes all open region files, the ones still in use once their last user is done. Pending saves
+     * should be written first.
+     */
+    public static void clear() {
+        synchronized (regions) {
+            for (OpenRegion open : regions.values()) {
+                if (open.users == 0) {
+                    close(open);
+                } else {
+                    open.closing = true;
+                }
+            }
+            regions.clear();
+        }
+    }
+}
@@ -8,6 +8,8 @@ class QueuedChunk {
     final net.minecraft.world.World world;
     final net.minecraft.world.gen.ChunkProviderServer provider;
     net.minecraft.nbt.NBTTagCompound compound;
+    // When the load was queued for the IO threads, 0 for loads that skip the queue
+    long queued;
 
     public QueuedChunk(int x, int z, net.minecraft.world.chunk.storage.AnvilChunkLoader loader, net.minecraft.world.World world, net.minecraft.world.gen.ChunkProviderServer provider) {
         this.x = x;
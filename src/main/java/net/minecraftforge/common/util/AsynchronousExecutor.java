@@ -1,16 +1,18 @@
 package net.minecraftforge.common.util;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
 import cpw.mods.fml.common.FMLLog;
 
@@ -20,6 +22,8 @@ import cpw.mods.fml.common.FMLLog;
  * <li \> Stage 1 creates the object from a parameter, and is usually called asynchronously.
  * <li \> Stage 2 takes the parameter and object from stage 1 and does any synchronous processing to prepare it.
  * <li \> Stage 3 takes the parameter and object from stage 1, as well as a callback that was registered, and performs any synchronous calculations.
+ * <p>
+ * Queued stage 1 executions run in insertion order, unless the provider is also a {@link PriorityProvider}.
  *
  * @param <P> The type of parameter you provide to make the object that will be created. It should implement {@link Object#hashCode()} and {@link Object#equals(Object)} if you want to get the value early.
  * @param <T> The type of object you provide. This is created in stage 1, and passed to stage 2, 3, and returned if get() is called.
@@ -57,6 +61,22 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
         void callStage3(P parameter, T object, C callback) throws E;
     }
 
+    /**
+     * Optional interface for a {@link CallBackProvider} that wants queued parameters executed by priority instead of in insertion order.
+     *
+     * @param <P> The type of parameter
+     */
+    public static interface PriorityProvider<P> {
+
+        /**
+         * Synchronous call, made when the parameter is queued and again on each {@link AsynchronousExecutor#reprioritize()}
+         *
+         * @param parameter parameter object provided
+         * @return the priority of the parameter, lower values are executed first
+         */
+        long getPriority(P parameter);
+    }
+
     @SuppressWarnings("rawtypes")
     static final AtomicIntegerFieldUpdater STATE_FIELD = AtomicIntegerFieldUpdater.newUpdater(AsynchronousExecutor.Task.class, "state");
 
@@ -65,7 +85,7 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
         return STATE_FIELD.compareAndSet($this, expected, value);
     }
 
-    class Task implements Runnable {
+    class Task implements Runnable, Comparable<Task> {
         static final int PENDING = 0x0;
         static final int STAGE_1_ASYNC = PENDING + 1;
         static final int STAGE_1_SYNC = STAGE_1_ASYNC + 1;
@@ -77,9 +97,19 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
         T object;
         final List<C> callbacks = new LinkedList<C>();
         E t = null;
+        final long sequence;
+        long priority;
 
-        Task(final P parameter) {
+        Task(final P parameter, final long sequence) {
             this.parameter = parameter;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
         }
 
         public void run() {
@@ -147,11 +177,15 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
 
         @SuppressWarnings("unchecked")
         void init() {
+            final long start = System.nanoTime();
             try {
                 object = provider.callStage1(parameter);
             } catch (final Throwable t) {
                 this.t = (E) t;
             }
+            // Racy by design, losing the odd sample does not matter for an average
+            final long time = System.nanoTime() - start;
+            averageStage1Time += (time - averageStage1Time) >> 3;
         }
 
         @SuppressWarnings("unchecked")
@@ -217,21 +251,27 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
 
     final CallBackProvider<P, T, C, E> provider;
     final Queue<Task> finished = new ConcurrentLinkedQueue<Task>();
-    final Map<P, Task> tasks = new HashMap<P, Task>();
+    // Concurrent, as dimensions ticked in parallel load their chunks from their own threads
+    final Map<P, Task> tasks = new ConcurrentHashMap<P, Task>();
     final ThreadPoolExecutor pool;
+    final PriorityProvider<P> priorities;
+    final AtomicLong nextSequence = new AtomicLong();
+    volatile long averageStage1Time = 0;
 
     /**
      * Uses a thread pool to pass executions to the provider.
      * @see AsynchronousExecutor
      */
+    @SuppressWarnings("unchecked")
     public AsynchronousExecutor(final CallBackProvider<P, T, C, E> provider, final int coreSize) {
         if (provider == null) {
             throw new IllegalArgumentException("Provider cannot be null");
         }
         this.provider = provider;
+        this.priorities = provider instanceof PriorityProvider ? (PriorityProvider<P>) provider : null;
 
         // We have an unbound queue size so do not need a max thread size
-        pool = new ThreadPoolExecutor(coreSize, Integer.MAX_VALUE, 60l, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), provider);
+        pool = new ThreadPoolExecutor(coreSize, Integer.MAX_VALUE, 60l, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), provider);
     }
 
     /**
@@ -242,7 +282,10 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
     public void add(P parameter, C callback) {
         Task task = tasks.get(parameter);
         if (task == null) {
-            tasks.put(parameter, task = new Task(parameter));
+            tasks.put(parameter, task = new Task(parameter, nextSequence.getAndIncrement()));
+            if (priorities != null) {
+                task.priority = priorities.getPriority(parameter);
+            }
             pool.execute(task);
         }
         task.callbacks.add(callback);
@@ -355,6 +398,48 @@ public final class AsynchronousExecutor<P, T, C, E extends Throwable> {
         }
     }
 
+    /**
+     * Recomputes the priority of every queued parameter and discards queued tasks that were dropped or already completed.
+     * <p>
+     * This should always be synchronous.
+     */
+    @SuppressWarnings("unchecked")
+    public void reprioritize() {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        pool.getQueue().drainTo(queued);
+        final List<Runnable> keep = new ArrayList<Runnable>(queued.size());
+        for (Runnable runnable : queued) {
+            final Task task = (Task) runnable;
+            if (task.state != Task.PENDING) {
+                // Dropped, or already completed by a synchronous get
+                continue;
+            }
+            if (priorities != null) {
+                task.priority = priorities.getPriority(task.parameter);
+            }
+            keep.add(task);
+        }
+        pool.getQueue().addAll(keep);
+    }
+
+    /**
+     * @return the number of parameters waiting for a thread, including dropped ones not yet discarded
+     */
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * @return a moving average of the time spent in stage 1, in nanoseconds
+     */
+    public long getAverageStage1Time() {
+        return averageStage1Time;
+    }
+
+    public int getActiveThreads() {
+        return pool.getCorePoolSize();
+    }
+
     public void setActiveThreads(final int coreSize) {
         pool.setCorePoolSize(coreSize);
     }
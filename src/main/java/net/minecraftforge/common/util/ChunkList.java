@@ -0,0 +1,253 @@
+package net.minecraftforge.common.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * List of loaded chunks with constant time {@link #remove(Object)} and {@link #contains(Object)}.
+ *
+ * Each chunk's position in the list is indexed by its coordinates. Removing a chunk moves the
+ * last chunk into its place, so the list does not keep insertion order. Iterators remain valid
+ * across {@link java.util.Iterator#remove()} as with any other list.
+ */
+public class ChunkList extends AbstractList<Chunk> implements RandomAccess
+{
+    private Chunk[] data = new Chunk[64];
+    private int size;
+    // Open addressed index from chunk coordinates to list position + 1, 0 marks a free slot
+    private long[] indexKeys = new long[128];
+    private int[] indexValues = new int[128];
+    private int indexSize;
+
+    private static long key(Chunk chunk)
+    {
+        return ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+    }
+
+    @Override
+    public Chunk get(int index)
+    {
+        rangeCheck(index);
+        return data[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean add(Chunk chunk)
+    {
+        if (size == data.length)
+        {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size] = chunk;
+        putIndex(key(chunk), size);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Chunk chunk)
+    {
+        if (index == size)
+        {
+            add(chunk);
+            return;
+        }
+        rangeCheck(index);
+        add(data[index]);
+        set(index, chunk);
+    }
+
+    @Override
+    public Chunk set(int index, Chunk chunk)
+    {
+        rangeCheck(index);
+        Chunk old = data[index];
+        removeIndex(key(old), index);
+        data[index] = chunk;
+        putIndex(key(chunk), index);
+        return old;
+    }
+
+    @Override
+    public Chunk remove(int index)
+    {
+        rangeCheck(index);
+        Chunk old = data[index];
+        removeIndex(key(old), index);
+        size--;
+        if (index != size)
+        {
+            data[index] = data[size];
+            if (getIndex(key(data[index])) == size)
+            {
+                putIndex(key(data[index]), index);
+            }
+        }
+        data[size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        if (o instanceof Chunk)
+        {
+            int index = getIndex(key((Chunk)o));
+            if (index >= 0 && data[index] == o)
+            {
+                return index;
+            }
+        }
+        // Not indexed, e.g. a chunk that was added twice or moved, fall back to a scan
+        return super.indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        int index = indexOf(o);
+        if (index < 0)
+        {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(data, 0, size, null);
+        Arrays.fill(indexValues, 0);
+        size = 0;
+        indexSize = 0;
+        modCount++;
+    }
+
+    private void rangeCheck(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private int getIndex(long key)
+    {
+        int mask = indexKeys.length - 1;
+        for (int pos = LongHashSet.hash(key) & mask; indexValues[pos] != 0; pos = (pos + 1) & mask)
+        {
+            if (indexKeys[pos] == key)
+            {
+                return indexValues[pos] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void putIndex(long key, int index)
+    {
+        int mask = indexKeys.length - 1;
+        int pos = LongHashSet.hash(key) & mask;
+        for (; indexValues[pos] != 0; pos = (pos + 1) & mask)
+        {
+            if (indexKeys[pos] == key)
+            {
+                indexValues[pos] = index + 1;
+                return;
+            }
+        }
+        indexKeys[pos] = key;
+        indexValues[pos] = index + 1;
+        if (++indexSize * 2 > indexKeys.length)
+        {
+            rehashIndex(indexKeys.length * 2);
+        }
+    }
+
+    /**
+     * Drops the index entry for key if it points at the given position.
+     */
+    private void removeIndex(long key, int index)
+    {
+        int mask = indexKeys.length - 1;
+        for (int pos = LongHashSet.hash(key) & mask; indexValues[pos] != 0; pos = (pos + 1) & mask)
+        {
+            if (indexKeys[pos] == key)
+            {
+                if (indexValues[pos] == index + 1)
+                {
+                    indexSize--;
+                    shiftIndex(pos);
+                }
+                return;
+            }
+        }
+    }
+
+    private void shiftIndex(int pos)
+    {
+        int mask = indexKeys.length - 1;
+        while (true)
+        {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true)
+            {
+                if (indexValues[pos] == 0)
+                {
+                    indexValues[last] = 0;
+                    return;
+                }
+                int slot = LongHashSet.hash(indexKeys[pos]) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            indexKeys[last] = indexKeys[pos];
+            indexValues[last] = indexValues[pos];
+        }
+    }
+
+    private void rehashIndex(int capacity)
+    {
+        long[] oldKeys = indexKeys;
+        int[] oldValues = indexValues;
+        indexKeys = new long[capacity];
+        indexValues = new int[capacity];
+        int mask = capacity - 1;
+        for (int x = 0; x < oldKeys.length; x++)
+        {
+            if (oldValues[x] != 0)
+            {
+                int pos = LongHashSet.hash(oldKeys[x]) & mask;
+                while (indexValues[pos] != 0)
+                {
+                    pos = (pos + 1) & mask;
+                }
+                indexKeys[pos] = oldKeys[x];
+                indexValues[pos] = oldValues[x];
+            }
+        }
+    }
+}
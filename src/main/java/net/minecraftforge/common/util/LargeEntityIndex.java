@@ -0,0 +1,143 @@
+package net.minecraftforge.common.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.minecraft.command.IEntitySelector;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+
+/**
+ * Side list of the entities of a world that reach further than {@link #SCAN_MARGIN} from their position.
+ *
+ * Entities are bucketed by the chunk section of their position, so the entity queries of the world scan
+ * the sections around the searched box widened by a margin. Instead of widening every query by the
+ * size of the largest entity any mod adds, queries use the vanilla margin and additionally check the
+ * few entities listed here. Entities are listed or dropped whenever they spawn, are loaded or update,
+ * so a change of size is picked up on the next tick.
+ */
+public class LargeEntityIndex
+{
+    /** Margin around the searched box of the chunk section scans, same as vanilla */
+    public static final double SCAN_MARGIN = 2.0D;
+
+    private final World world;
+    private final Set<Entity> entities = new LinkedHashSet<Entity>();
+
+    public LargeEntityIndex(World world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * Lists or drops the entity depending on its current size.
+     */
+    public void update(Entity entity)
+    {
+        if (!entity.isDead && getReach(entity) > SCAN_MARGIN)
+        {
+            entities.add(entity);
+        }
+        else if (!entities.isEmpty())
+        {
+            entities.remove(entity);
+        }
+    }
+
+    /**
+     * @return how far the entity's and its parts' bounding boxes reach from its position
+     */
+    private static double getReach(Entity entity)
+    {
+        double reach = getReach(entity, entity.boundingBox);
+        Entity[] parts = entity.getParts();
+        if (parts != null)
+        {
+            for (Entity part : parts)
+            {
+                reach = Math.max(reach, getReach(entity, part.boundingBox));
+            }
+        }
+        return reach;
+    }
+
+    private static double getReach(Entity entity, AxisAlignedBB bb)
+    {
+        double x = Math.max(entity.posX - bb.minX, bb.maxX - entity.posX);
+        double y = Math.max(entity.posY - bb.minY, bb.maxY - entity.posY);
+        double z = Math.max(entity.posZ - bb.minZ, bb.maxZ - entity.posZ);
+        return Math.max(x, Math.max(y, z));
+    }
+
+    /**
+     * Adds the listed entities matching a query that the chunk section scan of the query missed.
+     *
+     * @param exclude Entity to leave out, for queries of all entity types
+     * @param type Entity class to match, or null to match every entity and its parts like
+     *        {@link World#getEntitiesWithinAABBExcludingEntity}
+     * @param box The searched box
+     * @param selector Additional filter, may be null
+     * @param out The query result
+     */
+    @SuppressWarnings("unchecked")
+    public void collect(Entity exclude, Class<?> type, AxisAlignedBB box, IEntitySelector selector, List out)
+    {
+        if (entities.isEmpty())
+        {
+            return;
+        }
+
+        // The chunks and sections the query scanned already
+        int minX = MathHelper.floor_double((box.minX - SCAN_MARGIN) / 16.0D);
+        int maxX = MathHelper.floor_double((box.maxX + SCAN_MARGIN) / 16.0D);
+        int minY = MathHelper.clamp_int(MathHelper.floor_double((box.minY - SCAN_MARGIN) / 16.0D), 0, 15);
+        int maxY = MathHelper.clamp_int(MathHelper.floor_double((box.maxY + SCAN_MARGIN) / 16.0D), 0, 15);
+        int minZ = MathHelper.floor_double((box.minZ - SCAN_MARGIN) / 16.0D);
+        int maxZ = MathHelper.floor_double((box.maxZ + SCAN_MARGIN) / 16.0D);
+
+        for (Iterator<Entity> itr = entities.iterator(); itr.hasNext();)
+        {
+            Entity entity = itr.next();
+            if (entity.isDead || entity.worldObj != world || !entity.addedToChunk || !world.getChunkProvider().chunkExists(entity.chunkCoordX, entity.chunkCoordZ))
+            {
+                itr.remove();
+                continue;
+            }
+            if (entity.chunkCoordX >= minX && entity.chunkCoordX <= maxX &&
+                entity.chunkCoordZ >= minZ && entity.chunkCoordZ <= maxZ &&
+                entity.chunkCoordY >= minY && entity.chunkCoordY <= maxY)
+            {
+                continue;
+            }
+
+            if (type != null)
+            {
+                if (type.isAssignableFrom(entity.getClass()) && entity.boundingBox.intersectsWith(box) && (selector == null || selector.isEntityApplicable(entity)))
+                {
+                    out.add(entity);
+                }
+                continue;
+            }
+
+            if (entity != exclude && entity.boundingBox.intersectsWith(box) && (selector == null || selector.isEntityApplicable(entity)))
+            {
+                out.add(entity);
+                Entity[] parts = entity.getParts();
+                if (parts != null)
+                {
+                    for (Entity part : parts)
+                    {
+                        if (part != exclude && part.boundingBox.intersectsWith(box) && (selector == null || selector.isEntityApplicable(part)))
+                        {
+                            out.add(part);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
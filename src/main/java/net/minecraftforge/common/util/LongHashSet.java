@@ -0,0 +1,293 @@
+package net.minecraftforge.common.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Open addressed set of primitive longs, used for chunk coordinate keys.
+ *
+ * The primitive methods never box. The {@link java.util.Set} methods are there so it can stand in
+ * for a vanilla {@code Set<Long>}, they box like any other set would.
+ *
+ * Getting the first element through {@link #iterator()} is amortized constant time even while
+ * elements are taken from the front one by one, as the set remembers where its first element is.
+ * The iterator supports removal, so the bulk methods of {@link java.util.Set} work, but must not be
+ * used while the set is modified in any other way.
+ */
+public class LongHashSet extends AbstractSet<Long>
+{
+    private static final int NONE = -1;
+    private static final int ZERO = -2;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    // 0 marks a free slot, so the key 0 is kept on the side
+    private boolean containsZero;
+    // No slot below this one is used
+    private int firstUsed;
+
+    public LongHashSet()
+    {
+        this(16);
+    }
+
+    public LongHashSet(int expected)
+    {
+        int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+        firstUsed = capacity;
+    }
+
+    static int hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    public boolean contains(long key)
+    {
+        if (key == 0)
+        {
+            return containsZero;
+        }
+        for (int pos = hash(key) & mask; keys[pos] != 0; pos = (pos + 1) & mask)
+        {
+            if (keys[pos] == key)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(long key)
+    {
+        if (key == 0)
+        {
+            if (containsZero)
+            {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int pos = hash(key) & mask;
+        for (; keys[pos] != 0; pos = (pos + 1) & mask)
+        {
+            if (keys[pos] == key)
+            {
+                return false;
+            }
+        }
+        keys[pos] = key;
+        firstUsed = Math.min(firstUsed, pos);
+        if (++size * 2 > keys.length)
+        {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(long key)
+    {
+        if (key == 0)
+        {
+            if (!containsZero)
+            {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        for (int pos = hash(key) & mask; keys[pos] != 0; pos = (pos + 1) & mask)
+        {
+            if (keys[pos] == key)
+            {
+                size--;
+                shiftKeys(pos, null);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes the gap left at pos by moving back the following keys of the probe sequence.
+     *
+     * @param wrapped If not null, gets the keys moved from the start of the table to its end
+     */
+    private void shiftKeys(int pos, LongHashSet wrapped)
+    {
+        while (true)
+        {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            long key;
+            while (true)
+            {
+                if ((key = keys[pos]) == 0)
+                {
+                    keys[last] = 0;
+                    return;
+                }
+                int slot = hash(key) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = key;
+            firstUsed = Math.min(firstUsed, last);
+            if (wrapped != null && pos < last)
+            {
+                wrapped.add(key);
+            }
+        }
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] old = keys;
+        keys = new long[capacity];
+        mask = capacity - 1;
+        firstUsed = capacity;
+        for (long key : old)
+        {
+            if (key != 0)
+            {
+                int pos = hash(key) & mask;
+                while (keys[pos] != 0)
+                {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+                firstUsed = Math.min(firstUsed, pos);
+            }
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        java.util.Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+        firstUsed = keys.length;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return o instanceof Long && contains(((Long)o).longValue());
+    }
+
+    @Override
+    public boolean add(Long key)
+    {
+        return add(key.longValue());
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        return o instanceof Long && remove(((Long)o).longValue());
+    }
+
+    @Override
+    public Iterator<Long> iterator()
+    {
+        return new Iterator<Long>()
+        {
+            private boolean zero = containsZero;
+            private final int start = firstUsed;
+            private int pos = start;
+            private boolean returned = false;
+            // Slot of the key returned last, ZERO for the key 0, NONE if there is nothing to remove
+            private int last = NONE;
+            // Keys already returned that a removal moved past pos, skipped once they are reached again
+            private LongHashSet wrapped;
+
+            private int advance()
+            {
+                while (pos < keys.length && (keys[pos] == 0 || (wrapped != null && wrapped.remove(keys[pos]))))
+                {
+                    pos++;
+                }
+                return pos;
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return zero || advance() < keys.length;
+            }
+
+            @Override
+            public Long next()
+            {
+                if (zero)
+                {
+                    zero = false;
+                    last = ZERO;
+                    return 0L;
+                }
+                if (advance() >= keys.length)
+                {
+                    throw new NoSuchElementException();
+                }
+                if (!returned && firstUsed == start)
+                {
+                    // Everything from start to pos was free when we passed it, skip it next time
+                    firstUsed = pos;
+                }
+                returned = true;
+                last = pos;
+                return keys[pos++];
+            }
+
+            @Override
+            public void remove()
+            {
+                if (last == NONE)
+                {
+                    throw new IllegalStateException();
+                }
+                if (last == ZERO)
+                {
+                    containsZero = false;
+                }
+                else
+                {
+                    if (wrapped == null)
+                    {
+                        wrapped = new LongHashSet(4);
+                    }
+                    // Closing the gap moves keys not returned yet into the slot, and keys from the start
+                    // of the table, returned already, to its end
+                    shiftKeys(last, wrapped);
+                    pos = last;
+                }
+                size--;
+                last = NONE;
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package net.minecraftforge.common.util;
+
+import java.util.Arrays;
+
+import net.minecraft.util.LongHashMap;
+
+/**
+ * Open addressed drop-in replacement for {@link LongHashMap}.
+ *
+ * Keys and values live in two flat arrays, so adding a value allocates nothing and a lookup
+ * touches no entry objects. Null values can not be stored, adding one removes the key.
+ */
+public class OpenLongHashMap extends LongHashMap
+{
+    private long[] keys;
+    // A null value marks a free slot
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public OpenLongHashMap()
+    {
+        this(16);
+    }
+
+    public OpenLongHashMap(int expected)
+    {
+        int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int find(long key)
+    {
+        for (int pos = LongHashSet.hash(key) & mask; values[pos] != null; pos = (pos + 1) & mask)
+        {
+            if (keys[pos] == key)
+            {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getNumHashElements()
+    {
+        return size;
+    }
+
+    @Override
+    public Object getValueByKey(long key)
+    {
+        int pos = find(key);
+        return pos < 0 ? null : values[pos];
+    }
+
+    @Override
+    public boolean containsItem(long key)
+    {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public void add(long key, Object value)
+    {
+        if (value == null)
+        {
+            remove(key);
+            return;
+        }
+        int pos = LongHashSet.hash(key) & mask;
+        for (; values[pos] != null; pos = (pos + 1) & mask)
+        {
+            if (keys[pos] == key)
+            {
+                values[pos] = value;
+                return;
+            }
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size * 2 > keys.length)
+        {
+            rehash(keys.length * 2);
+        }
+    }
+
+    @Override
+    public Object remove(long key)
+    {
+        int pos = find(key);
+        if (pos < 0)
+        {
+            return null;
+        }
+        Object ret = values[pos];
+        size--;
+        shiftKeys(pos);
+        return ret;
+    }
+
+    /**
+     * Closes the gap left at pos by moving back the following entries of the probe sequence.
+     */
+    private void shiftKeys(int pos)
+    {
+        while (true)
+        {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true)
+            {
+                if (values[pos] == null)
+                {
+                    values[last] = null;
+                    return;
+                }
+                int slot = LongHashSet.hash(keys[pos]) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int x = 0; x < oldKeys.length; x++)
+        {
+            if (oldValues[x] != null)
+            {
+                int pos = LongHashSet.hash(oldKeys[x]) & mask;
+                while (values[pos] != null)
+                {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[x];
+                values[pos] = oldValues[x];
+            }
+        }
+    }
+
+    public void clear()
+    {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,381 @@
+package net.minecraftforge.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+
+/**
+ * Lets the tile entities of a world sleep, so idle tile entities are not visited by the tile entity
+ * loop of the world every tick.
+ *
+ * A tile entity falling asleep is taken out of {@link World#loadedTileEntityList} after the loop and
+ * put back once it is woken, so it costs nothing while it sleeps. Tile entities are woken when their
+ * timer runs out, when a block next to them is set, or when they or a neighbour are marked dirty, which
+ * covers inventory changes. Blocks that need to react to other neighbour notifications, like redstone
+ * changes, have to call {@link TileEntity#wake()} from onNeighborBlockChange. Woken tile entities tick
+ * again from the next world tick on. Sleeping is not saved, tile entities are awake when loaded.
+ *
+ * While profiling is on, the time spent in updateEntity is summed up per tile entity class, see
+ * /forge tiles. Can be enabled at startup with -Dforge.tileEntityProfiler=true.
+ */
+public class TileEntityScheduler
+{
+    // How often sleeping tile entities are checked for having been invalidated without being woken
+    private static final int PURGE_INTERVAL = 1200;
+
+    private static volatile boolean profiling = Boolean.parseBoolean(System.getProperty("forge.tileEntityProfiler", "false"));
+    private static final ConcurrentHashMap<Class<?>, ClassStats> stats = new ConcurrentHashMap<Class<?>, ClassStats>();
+
+    private final World world;
+    private final Map<TileEntity, Sleeper> sleepers = new IdentityHashMap<TileEntity, Sleeper>();
+    // Block position -> sleeper there
+    private final OpenLongHashMap byPosition = new OpenLongHashMap();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<Timer>();
+    // Fell asleep since the last update, still in the loaded list
+    private final List<Sleeper> fellAsleep = new ArrayList<Sleeper>();
+    // Woken since the last update, to be put back into the loaded list
+    private final Set<TileEntity> woken = Collections.newSetFromMap(new IdentityHashMap<TileEntity, Boolean>());
+    private long ticks;
+
+    public TileEntityScheduler(World world)
+    {
+        this.world = world;
+    }
+
+    private static class Sleeper
+    {
+        private final TileEntity tile;
+        private final long key;
+        private long wakeTime = -1;
+        // Whether the tile entity is still in the loaded list
+        private boolean listed;
+
+        private Sleeper(TileEntity tile, long key, boolean listed)
+        {
+            this.tile = tile;
+            this.key = key;
+            this.listed = listed;
+        }
+    }
+
+    private static class Timer implements Comparable<Timer>
+    {
+        private final Sleeper sleeper;
+        private final long time;
+
+        private Timer(Sleeper sleeper, long time)
+        {
+            this.sleeper = sleeper;
+            this.time = time;
+        }
+
+        @Override
+        public int compareTo(Timer o)
+        {
+            return time < o.time ? -1 : (time == o.time ? 0 : 1);
+        }
+    }
+
+    public static class ClassStats
+    {
+        public final Class<?> type;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        private ClassStats(Class<?> type)
+        {
+            this.type = type;
+        }
+
+        public long getCount()
+        {
+            return count.get();
+        }
+
+        public long getNanos()
+        {
+            return nanos.get();
+        }
+    }
+
+    private static long key(int x, int y, int z)
+    {
+        return ((long)x & 0x3FFFFFF) << 38 | ((long)z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    /**
+     * Ticks the tile entity, called by the tile entity loop of the world in place of updateEntity.
+     */
+    public void tick(TileEntity tile)
+    {
+        if (!profiling)
+        {
+            tile.updateEntity();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try
+        {
+            tile.updateEntity();
+        }
+        finally
+        {
+            record(tile.getClass(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Puts the tile entity to sleep, it is not ticked from the next tick on until it is woken.
+     *
+     * @param ticks Ticks until the tile entity is woken again, or a negative value to sleep until woken otherwise
+     */
+    public void sleep(TileEntity tile, int ticks)
+    {
+        if (tile.getWorldObj() != world || tile.isInvalid() || !tile.canUpdate())
+        {
+            return;
+        }
+
+        Sleeper sleeper = sleepers.get(tile);
+        if (sleeper == null)
+        {
+            long key = key(tile.xCoord, tile.yCoord, tile.zCoord);
+            Sleeper old = (Sleeper)byPosition.getValueByKey(key);
+            if (old != null)
+            {
+                // A replaced tile entity, it will be dropped once woken
+                wake(old.tile);
+            }
+            // If it was woken since the last update it is not back in the loaded list yet
+            sleeper = new Sleeper(tile, key, !woken.remove(tile));
+            sleepers.put(tile, sleeper);
+            byPosition.add(key, sleeper);
+            if (sleeper.listed)
+            {
+                fellAsleep.add(sleeper);
+            }
+        }
+
+        sleeper.wakeTime = ticks < 0 ? -1 : this.ticks + ticks;
+        if (sleeper.wakeTime >= 0)
+        {
+            timers.add(new Timer(sleeper, sleeper.wakeTime));
+        }
+    }
+
+    /**
+     * Wakes the tile entity if it is sleeping, it is ticked again from the next tick on.
+     */
+    public void wake(TileEntity tile)
+    {
+        if (sleepers.isEmpty())
+        {
+            return;
+        }
+        Sleeper sleeper = sleepers.remove(tile);
+        if (sleeper == null)
+        {
+            return;
+        }
+        if (byPosition.getValueByKey(sleeper.key) == sleeper)
+        {
+            byPosition.remove(sleeper.key);
+        }
+        if (!sleeper.listed)
+        {
+            woken.add(tile);
+        }
+    }
+
+    /**
+     * Wakes the tile entity at the given position and the ones next to it.
+     */
+    public void wakeAround(int x, int y, int z)
+    {
+        if (sleepers.isEmpty())
+        {
+            return;
+        }
+        wakeAt(x, y, z);
+        wakeAt(x - 1, y, z);
+        wakeAt(x + 1, y, z);
+        wakeAt(x, y - 1, z);
+        wakeAt(x, y + 1, z);
+        wakeAt(x, y, z - 1);
+        wakeAt(x, y, z + 1);
+    }
+
+    private void wakeAt(int x, int y, int z)
+    {
+        Sleeper sleeper = (Sleeper)byPosition.getValueByKey(key(x, y, z));
+        if (sleeper != null)
+        {
+            wake(sleeper.tile);
+        }
+    }
+
+    public boolean isSleeping(TileEntity tile)
+    {
+        return !sleepers.isEmpty() && sleepers.containsKey(tile);
+    }
+
+    public int getSleepingCount()
+    {
+        return sleepers.size();
+    }
+
+    /**
+     * Forgets the tile entity, called when it is removed from the world together with its chunk.
+     */
+    public void remove(TileEntity tile)
+    {
+        Sleeper sleeper = sleepers.remove(tile);
+        if (sleeper != null && byPosition.getValueByKey(sleeper.key) == sleeper)
+        {
+            byPosition.remove(sleeper.key);
+        }
+        if (!woken.isEmpty())
+        {
+            woken.remove(tile);
+        }
+    }
+
+    /**
+     * Takes the tile entities that fell asleep out of the loaded list and puts the woken ones back,
+     * called after the tile entity loop of the world.
+     */
+    @SuppressWarnings("unchecked")
+    public void update(List loaded)
+    {
+        ticks++;
+
+        if (!fellAsleep.isEmpty())
+        {
+            // Single pass over the list instead of removing the sleepers one by one
+            int size = loaded.size();
+            int kept = 0;
+            for (int x = 0; x < size; x++)
+            {
+                Object tile = loaded.get(x);
+                Sleeper sleeper = sleepers.get(tile);
+                if (sleeper != null && sleeper.listed)
+                {
+                    sleeper.listed = false;
+                    continue;
+                }
+                loaded.set(kept++, tile);
+            }
+            loaded.subList(kept, size).clear();
+
+            for (Sleeper sleeper : fellAsleep)
+            {
+                // Not in the loaded list, so it isn't ticked anyway and must not be added by waking it
+                if (sleeper.listed && sleepers.get(sleeper.tile) == sleeper)
+                {
+                    remove(sleeper.tile);
+                }
+            }
+            fellAsleep.clear();
+        }
+
+        while (!timers.isEmpty() && timers.peek().time <= ticks)
+        {
+            Timer timer = timers.poll();
+            if (timer.sleeper.wakeTime == timer.time && sleepers.get(timer.sleeper.tile) == timer.sleeper)
+            {
+                wake(timer.sleeper.tile);
+            }
+        }
+
+        if (ticks % PURGE_INTERVAL == 0 && !sleepers.isEmpty())
+        {
+            for (TileEntity tile : new ArrayList<TileEntity>(sleepers.keySet()))
+            {
+                if (tile.isInvalid())
+                {
+                    remove(tile);
+                }
+            }
+        }
+
+        if (!woken.isEmpty())
+        {
+            for (TileEntity tile : woken)
+            {
+                if (!tile.isInvalid() && tile.getWorldObj() == world)
+                {
+                    loaded.add(tile);
+                }
+            }
+            woken.clear();
+        }
+    }
+
+    // profiling
+
+    public static boolean isProfiling()
+    {
+        return profiling;
+    }
+
+    public static void startProfiling()
+    {
+        profiling = true;
+    }
+
+    public static void stopProfiling()
+    {
+        profiling = false;
+    }
+
+    public static void resetProfile()
+    {
+        stats.clear();
+    }
+
+    private static void record(Class<?> type, long nanos)
+    {
+        ClassStats entry = stats.get(type);
+        if (entry == null)
+        {
+            ClassStats created = new ClassStats(type);
+            entry = stats.putIfAbsent(type, created);
+            if (entry == null)
+            {
+                entry = created;
+            }
+        }
+        entry.count.incrementAndGet();
+        entry.nanos.addAndGet(nanos);
+    }
+
+    /**
+     * @return The tick cost of every tile entity class ticked while profiling, most expensive first
+     */
+    public static List<ClassStats> getProfile()
+    {
+        List<ClassStats> ret = new ArrayList<ClassStats>(stats.values());
+        Collections.sort(ret, new Comparator<ClassStats>()
+        {
+            @Override
+            public int compare(ClassStats a, ClassStats b)
+            {
+                long x = a.getNanos();
+                long y = b.getNanos();
+                return x > y ? -1 : (x == y ? 0 : 1);
+            }
+        });
+        return ret;
+    }
+}
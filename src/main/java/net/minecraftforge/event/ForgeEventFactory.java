@@ -72,6 +72,7 @@ public class ForgeEventFactory
 
     public static boolean doPlayerHarvestCheck(EntityPlayer player, Block block, boolean success)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(PlayerEvent.HarvestCheck.class)) return success;
         PlayerEvent.HarvestCheck event = new PlayerEvent.HarvestCheck(player, block, success);
         MinecraftForge.EVENT_BUS.post(event);
         return event.success;
@@ -85,6 +86,7 @@ public class ForgeEventFactory
 
     public static float getBreakSpeed(EntityPlayer player, Block block, int metadata, float original, int x, int y, int z)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(PlayerEvent.BreakSpeed.class)) return original;
         PlayerEvent.BreakSpeed event = new PlayerEvent.BreakSpeed(player, block, metadata, original, x, y, z);
         return (MinecraftForge.EVENT_BUS.post(event) ? -1 : event.newSpeed);
     }
@@ -108,6 +110,7 @@ public class ForgeEventFactory
 
     public static Result canEntitySpawn(EntityLiving entity, World world, float x, float y, float z)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingSpawnEvent.CheckSpawn.class)) return Result.DEFAULT;
         LivingSpawnEvent.CheckSpawn event = new LivingSpawnEvent.CheckSpawn(entity, world, x, y, z);
         MinecraftForge.EVENT_BUS.post(event);
         return event.getResult();
@@ -115,11 +118,13 @@ public class ForgeEventFactory
 
     public static boolean doSpecialSpawn(EntityLiving entity, World world, float x, float y, float z)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingSpawnEvent.SpecialSpawn.class)) return false;
         return MinecraftForge.EVENT_BUS.post(new LivingSpawnEvent.SpecialSpawn(entity, world, x, y, z));
     }
 
     public static Result canEntityDespawn(EntityLiving entity)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(AllowDespawn.class)) return Result.DEFAULT;
         AllowDespawn event = new AllowDespawn(entity);
         MinecraftForge.EVENT_BUS.post(event);
         return event.getResult();
@@ -127,6 +132,7 @@ public class ForgeEventFactory
 
     public static List<BiomeGenBase.SpawnListEntry> getPotentialSpawns(WorldServer world, EnumCreatureType type, int x, int y, int z, List<BiomeGenBase.SpawnListEntry> oldList)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(WorldEvent.PotentialSpawns.class)) return oldList != null ? oldList : new ArrayList<BiomeGenBase.SpawnListEntry>();
         WorldEvent.PotentialSpawns event = new WorldEvent.PotentialSpawns(world, type, x, y, z, oldList);
         if (MinecraftForge.EVENT_BUS.post(event))
         {
@@ -137,6 +143,7 @@ public class ForgeEventFactory
 
     public static int getFuelBurnTime(ItemStack fuel)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(FuelBurnTimeEvent.class)) return -1;
         FuelBurnTimeEvent event = new FuelBurnTimeEvent(fuel);
         MinecraftForge.EVENT_BUS.post(event);
         return event.getResult() == Result.DEFAULT ? -1 : event.burnTime;
@@ -144,6 +151,7 @@ public class ForgeEventFactory
 
     public static int getMaxSpawnPackSize(EntityLiving entity)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingPackSizeEvent.class)) return entity.getMaxSpawnedInChunk();
         LivingPackSizeEvent maxCanSpawnEvent = new LivingPackSizeEvent(entity);
         MinecraftForge.EVENT_BUS.post(maxCanSpawnEvent);
         return maxCanSpawnEvent.getResult() == Result.ALLOW ? maxCanSpawnEvent.maxPackSize : entity.getMaxSpawnedInChunk();
@@ -158,6 +166,7 @@ public class ForgeEventFactory
 
     public static float fireBlockHarvesting(ArrayList<ItemStack> drops, World world, Block block, int x, int y, int z, int meta, int fortune, float dropChance, boolean silkTouch, EntityPlayer player)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(BlockEvent.HarvestDropsEvent.class)) return dropChance;
         BlockEvent.HarvestDropsEvent event = new BlockEvent.HarvestDropsEvent(x, y, z, world, block, meta, fortune, dropChance, drops, player, silkTouch);
         MinecraftForge.EVENT_BUS.post(event);
         return event.dropChance;
@@ -190,6 +199,7 @@ public class ForgeEventFactory
 
     public static int onItemUseTick(EntityPlayer player, ItemStack item, int duration)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(PlayerUseItemEvent.Tick.class)) return duration;
         PlayerUseItemEvent event = new PlayerUseItemEvent.Tick(player, item, duration);
         return MinecraftForge.EVENT_BUS.post(event) ? -1 : event.duration;
     }
@@ -208,11 +218,13 @@ public class ForgeEventFactory
 
     public static void onStartEntityTracking(Entity entity, EntityPlayer player)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(PlayerEvent.StartTracking.class)) return;
         MinecraftForge.EVENT_BUS.post(new PlayerEvent.StartTracking(player, entity));
     }
 
     public static void onStopEntityTracking(Entity entity, EntityPlayer player)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(PlayerEvent.StopTracking.class)) return;
         MinecraftForge.EVENT_BUS.post(new PlayerEvent.StopTracking(player, entity));
     }
 
@@ -260,6 +272,7 @@ public class ForgeEventFactory
 
     public static float onLivingHeal(EntityLivingBase entity, float amount)
     {
+        if (!MinecraftForge.EVENT_BUS.hasListeners(LivingHealEvent.class)) return amount;
         LivingHealEvent event = new LivingHealEvent(entity, amount);
         return (MinecraftForge.EVENT_BUS.post(event) ? 0 : event.amount);
     }
@@ -3,6 +3,7 @@ package net.minecraftforge.event.entity.player;
 import java.io.File;
 
 import cpw.mods.fml.common.eventhandler.Cancelable;
+import cpw.mods.fml.common.eventhandler.Event;
 import net.minecraft.block.Block;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
@@ -137,6 +138,7 @@ public class PlayerEvent extends LivingEvent
      * Fired when the EntityPlayer is cloned, typically caused by the network sending a RESPAWN_PLAYER event.
      * Either caused by death, or by traveling from the End to the overworld.
      */
+    @Event.Immutable
     public static class Clone extends PlayerEvent
     {
         /**
@@ -161,6 +163,7 @@ public class PlayerEvent extends LivingEvent
      * Fired when an Entity is started to be "tracked" by this player (the player receives updates about this entity, e.g. motion).
      *
      */
+    @Event.Immutable
     public static class StartTracking extends PlayerEvent {
         
         /**
@@ -180,6 +183,7 @@ public class PlayerEvent extends LivingEvent
      * Fired when an Entity is stopped to be "tracked" by this player (the player no longer receives updates about this entity, e.g. motion).
      *
      */
+    @Event.Immutable
     public static class StopTracking extends PlayerEvent {
         
         /**
@@ -201,6 +205,7 @@ public class PlayerEvent extends LivingEvent
      * allow mods to load an additional file from the players directory
      * containing additional mod related player data.
      */
+    @Event.Immutable
     public static class LoadFromFile extends PlayerEvent {
         /**
          * The directory where player data is being stored. Use this
@@ -244,6 +249,7 @@ public class PlayerEvent extends LivingEvent
      * <em>WARNING</em>: Do not overwrite the player's .dat file here. You will
      * corrupt the world state.
      */
+    @Event.Immutable
     public static class SaveToFile extends PlayerEvent {
         /**
          * The directory where player data is being stored. Use this
@@ -1,5 +1,6 @@
 package net.minecraftforge.event.world;
 
+import cpw.mods.fml.common.eventhandler.Event;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.nbt.NBTTagCompound;
 
@@ -55,13 +56,21 @@ public class ChunkDataEvent extends ChunkEvent
      * <br>
      * This event does not have a result. {@link HasResult} <br>
      * <br>
+     * Async listeners receive a copy of the chunk data, the chunk is still the live one.<br>
+     * <br>
      * This event is fired on the {@link MinecraftForge#EVENT_BUS}.<br>
      **/
-    public static class Save extends ChunkDataEvent
+    public static class Save extends ChunkDataEvent implements Event.Snapshot
     {
         public Save(Chunk chunk, NBTTagCompound data)
         {
             super(chunk, data);
         }
+
+        @Override
+        public Event snapshot()
+        {
+            return new Save(getChunk(), (NBTTagCompound)getData().copy());
+        }
     }
 }
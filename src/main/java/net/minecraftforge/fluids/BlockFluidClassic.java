@@ -18,8 +18,13 @@ import net.minecraft.world.World;
  */
 public class BlockFluidClassic extends BlockFluidBase
 {
+    /** @deprecated No longer filled in, {@link #getOptimalFlowDirections} returns a new array. */
+    @Deprecated
     protected boolean[] isOptimalFlowDirection = new boolean[4];
+    /** @deprecated No longer filled in, the flow costs are computed by {@link #flowEngine}. */
+    @Deprecated
     protected int[] flowCost = new int[4];
+    protected final FluidFlowEngine flowEngine = new FluidFlowEngine(this);
 
     protected FluidStack stack;
     public BlockFluidClassic(Fluid fluid, Material material)
@@ -115,6 +120,7 @@ public class BlockFluidClassic extends BlockFluidBase
             {
                 quantaRemaining = expQuanta;
 
+                flowEngine.invalidate(world, x, y, z);
                 if (expQuanta <= 0)
                 {
                     world.setBlock(x, y, z, Blocks.air);
@@ -130,6 +136,7 @@ public class BlockFluidClassic extends BlockFluidBase
         // This is a "source" block, set meta to zero, and send a server only update
         else if (quantaRemaining >= quantaPerBlock)
         {
+            flowEngine.invalidate(world, x, y, z);
             world.setBlockMetadataWithNotify(x, y, z, 0, 2);
         }
 
@@ -173,54 +180,28 @@ public class BlockFluidClassic extends BlockFluidBase
         return world.getBlock(x, y, z) == this && world.getBlockMetadata(x, y, z) == 0;
     }
 
-    protected boolean[] getOptimalFlowDirections(World world, int x, int y, int z)
+    @Override
+    public void onNeighborBlockChange(World world, int x, int y, int z, Block block)
     {
-        for (int side = 0; side < 4; side++)
-        {
-            flowCost[side] = 1000;
-
-            int x2 = x;
-            int y2 = y;
-            int z2 = z;
-
-            switch (side)
-            {
-                case 0: --x2; break;
-                case 1: ++x2; break;
-                case 2: --z2; break;
-                case 3: ++z2; break;
-            }
-
-            if (!canFlowInto(world, x2, y2, z2) || isSourceBlock(world, x2, y2, z2))
-            {
-                continue;
-            }
-
-            if (canFlowInto(world, x2, y2 + densityDir, z2))
-            {
-                flowCost[side] = 0;
-            }
-            else
-            {
-                flowCost[side] = calculateFlowCost(world, x2, y2, z2, 1, side);
-            }
-        }
+        flowEngine.invalidateAround(world, x, y, z);
+        super.onNeighborBlockChange(world, x, y, z, block);
+    }
 
-        int min = flowCost[0];
-        for (int side = 1; side < 4; side++)
-        {
-            if (flowCost[side] < min)
-            {
-                min = flowCost[side];
-            }
-        }
+    protected boolean[] getOptimalFlowDirections(World world, int x, int y, int z)
+    {
+        int optimal = flowEngine.getOptimalFlowDirections(world, x, y, z);
+        boolean[] ret = new boolean[4];
         for (int side = 0; side < 4; side++)
         {
-            isOptimalFlowDirection[side] = flowCost[side] == min;
+            ret[side] = (optimal & (1 << side)) != 0;
         }
-        return isOptimalFlowDirection;
+        return ret;
     }
 
+    /**
+     * @deprecated Queries the world for every step, {@link FluidFlowEngine} does the same search on cached blocks.
+     */
+    @Deprecated
     protected int calculateFlowCost(World world, int x, int y, int z, int recurseDepth, int side)
     {
         int cost = 1000;
@@ -275,6 +256,7 @@ public class BlockFluidClassic extends BlockFluidBase
         if (meta < 0) return;
         if (displaceIfPossible(world, x, y, z))
         {
+            flowEngine.invalidate(world, x, y, z);
             world.setBlock(x, y, z, this, meta, 3);
         }
     }
@@ -340,6 +322,7 @@ public class BlockFluidClassic extends BlockFluidBase
 
         if (doDrain)
         {
+            flowEngine.invalidate(world, x, y, z);
             world.setBlock(x, y, z, Blocks.air);
         }
 
@@ -2,13 +2,10 @@
 package net.minecraftforge.fluids;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Lists;
 import cpw.mods.fml.common.FMLLog;
 import cpw.mods.fml.common.eventhandler.Event;
 import net.minecraft.init.Items;
@@ -27,50 +24,56 @@ import net.minecraftforge.common.MinecraftForge;
  */
 public abstract class FluidContainerRegistry
 {
-    // Holder object that implements HashCode for an ItemStack,
-    // the local maps are not guaranteed to have the same internal generic structure,
-    // but the external interface for checking ItemStacks will still exist.
-    private static class ContainerKey
+    // Registered containers of one item, indexed by damage. Lookups probe these with the item and damage
+    // of the given stack directly, so checking a stack allocates nothing.
+    private static class ItemContainers
     {
-        ItemStack container;
-        FluidStack stack;
-        private ContainerKey(ItemStack container)
-        {
-            this.container = container;
-        }
-        private ContainerKey(ItemStack container, FluidStack stack)
-        {
-            this(container);
-            this.stack = stack;
-        }
-        @Override
-        public int hashCode()
+        private int[] damages = new int[0];
+        private ContainerEntry[] entries = new ContainerEntry[0];
+
+        private ContainerEntry get(int damage)
         {
-            int code = 1;
-            code = 31*code + container.getItem().hashCode();
-            code = 31*code + container.getItemDamage();
-            if (stack != null)
-                code = 31*code + stack.getFluid().hashCode();
-            return code;
+            // Most items only have a single registered damage value
+            if (damages.length == 1)
+            {
+                return damages[0] == damage ? entries[0] : null;
+            }
+            int index = Arrays.binarySearch(damages, damage);
+            return index < 0 ? null : entries[index];
         }
-        @Override
-        public boolean equals(Object o)
+
+        private ContainerEntry getOrCreate(int damage)
         {
-            if (!(o instanceof ContainerKey)) return false;
-            ContainerKey ck = (ContainerKey)o;
-            if (container.getItem() != ck.container.getItem()) return false;
-            if (container.getItemDamage() != ck.container.getItemDamage()) return false;
-            if (stack == null && ck.stack != null) return false;
-            if (stack != null && ck.stack == null) return false;
-            if (stack == null && ck.stack == null) return true;
-            if (stack.getFluid() != ck.stack.getFluid()) return false;
-            return true;
+            int index = Arrays.binarySearch(damages, damage);
+            if (index >= 0)
+            {
+                return entries[index];
+            }
+            index = -index - 1;
+            int[] newDamages = new int[damages.length + 1];
+            ContainerEntry[] newEntries = new ContainerEntry[entries.length + 1];
+            System.arraycopy(damages, 0, newDamages, 0, index);
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            System.arraycopy(damages, index, newDamages, index + 1, damages.length - index);
+            System.arraycopy(entries, index, newEntries, index + 1, entries.length - index);
+            newDamages[index] = damage;
+            newEntries[index] = new ContainerEntry();
+            damages = newDamages;
+            entries = newEntries;
+            return newEntries[index];
         }
     }
 
-    private static Map<ContainerKey, FluidContainerData> containerFluidMap = Maps.newHashMap();
-    private static Map<ContainerKey, FluidContainerData> filledContainerMap = Maps.newHashMap();
-    private static Set<ContainerKey> emptyContainers = Sets.newHashSet();
+    private static class ContainerEntry
+    {
+        // Registration of this item as a filled container
+        FluidContainerData filled;
+        // Registrations of this item as the empty container, by the fluid they are filled with
+        Map<Fluid, FluidContainerData> empty;
+    }
+
+    private static Map<Item, ItemContainers> containers = new IdentityHashMap<Item, ItemContainers>();
+    private static List<FluidContainerData> registeredContainers = Lists.newArrayList();
 
     public static final int BUCKET_VOLUME = 1000;
     public static final ItemStack EMPTY_BUCKET = new ItemStack(Items.bucket);
@@ -174,18 +177,52 @@ public abstract class FluidContainerRegistry
         	FMLLog.bigWarning("Invalid registration attempt for a fluid container item %s has occurred. The registration has been denied to prevent crashes. The mod responsible for the registration needs to correct this.", data.filledContainer.getItem().getUnlocalizedName(data.filledContainer));
         	return false;
         }
-        containerFluidMap.put(new ContainerKey(data.filledContainer), data);
+        getOrCreateEntry(data.filledContainer).filled = data;
+        registeredContainers.add(data);
 
         if (data.emptyContainer != null && data.emptyContainer != NULL_EMPTYCONTAINER)
         {
-            filledContainerMap.put(new ContainerKey(data.emptyContainer, data.fluid), data);
-            emptyContainers.add(new ContainerKey(data.emptyContainer));
+            ContainerEntry entry = getOrCreateEntry(data.emptyContainer);
+            if (entry.empty == null)
+            {
+                entry.empty = new IdentityHashMap<Fluid, FluidContainerData>();
+            }
+            entry.empty.put(data.fluid.getFluid(), data);
         }
 
         MinecraftForge.EVENT_BUS.post(new FluidContainerRegisterEvent(data));
         return true;
     }
 
+    private static ContainerEntry getOrCreateEntry(ItemStack stack)
+    {
+        ItemContainers item = containers.get(stack.getItem());
+        if (item == null)
+        {
+            item = new ItemContainers();
+            containers.put(stack.getItem(), item);
+        }
+        return item.getOrCreate(stack.getItemDamage());
+    }
+
+    private static ContainerEntry getEntry(ItemStack stack)
+    {
+        ItemContainers item = containers.get(stack.getItem());
+        return item == null ? null : item.get(stack.getItemDamage());
+    }
+
+    private static FluidContainerData getFilledData(ItemStack container)
+    {
+        ContainerEntry entry = getEntry(container);
+        return entry == null ? null : entry.filled;
+    }
+
+    private static FluidContainerData getEmptyData(ItemStack container, FluidStack fluid)
+    {
+        ContainerEntry entry = getEntry(container);
+        return entry == null || entry.empty == null ? null : entry.empty.get(fluid.getFluid());
+    }
+
     /**
      * Determines the fluid type and amount inside a container.
      *
@@ -200,7 +237,7 @@ public abstract class FluidContainerRegistry
             return null;
         }
 
-        FluidContainerData data = containerFluidMap.get(new ContainerKey(container));
+        FluidContainerData data = getFilledData(container);
         return data == null ? null : data.fluid.copy();
     }
 
@@ -222,7 +259,7 @@ public abstract class FluidContainerRegistry
             return null;
         }
 
-        FluidContainerData data = filledContainerMap.get(new ContainerKey(container, fluid));
+        FluidContainerData data = getEmptyData(container, fluid);
         if (data != null && fluid.amount >= data.fluid.amount)
         {
             return data.filledContainer.copy();
@@ -244,7 +281,7 @@ public abstract class FluidContainerRegistry
             return null;
         }
 
-        FluidContainerData data = containerFluidMap.get(new ContainerKey(container));
+        FluidContainerData data = getFilledData(container);
         if (data != null)
         {
             return data.emptyContainer.copy();
@@ -285,7 +322,7 @@ public abstract class FluidContainerRegistry
             return 0;
         }
 
-        FluidContainerData data = containerFluidMap.get(new ContainerKey(container));
+        FluidContainerData data = getFilledData(container);
 
         if (data != null)
         {
@@ -294,7 +331,7 @@ public abstract class FluidContainerRegistry
 
         if (fluid != null)
         {
-            data = filledContainerMap.get(new ContainerKey(container, fluid));
+            data = getEmptyData(container, fluid);
 
             if (data != null)
             {
@@ -315,7 +352,7 @@ public abstract class FluidContainerRegistry
             return false;
         }
 
-        FluidContainerData data = containerFluidMap.get(new ContainerKey(container));
+        FluidContainerData data = getFilledData(container);
         return data == null ? false : data.fluid.containsFluid(fluid);
     }
 
@@ -331,7 +368,7 @@ public abstract class FluidContainerRegistry
             return true;
         }
 
-        FluidContainerData data = containerFluidMap.get(new ContainerKey(container));
+        FluidContainerData data = getFilledData(container);
         return data != null && data.emptyContainer.isItemEqual(EMPTY_BUCKET);
     }
 
@@ -342,17 +379,22 @@ public abstract class FluidContainerRegistry
 
     public static boolean isEmptyContainer(ItemStack container)
     {
-        return container != null && emptyContainers.contains(new ContainerKey(container));
+        if (container == null)
+        {
+            return false;
+        }
+        ContainerEntry entry = getEntry(container);
+        return entry != null && entry.empty != null;
     }
 
     public static boolean isFilledContainer(ItemStack container)
     {
-        return container != null && getFluidForFilledItem(container) != null;
+        return container != null && getFilledData(container) != null;
     }
 
     public static FluidContainerData[] getRegisteredFluidContainerData()
     {
-        return containerFluidMap.values().toArray(new FluidContainerData[containerFluidMap.size()]);
+        return registeredContainers.toArray(new FluidContainerData[registeredContainers.size()]);
     }
 
     /**
@@ -0,0 +1,235 @@
+package net.minecraftforge.fluids;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.OpenLongHashMap;
+
+/**
+ * Computes the horizontal flow directions of a {@link BlockFluidClassic}.
+ *
+ * The search for the nearest drop reads every block of the neighbourhood at most once into a small
+ * buffer local to the current thread, instead of querying the world again for every step of every
+ * path. What was read is also kept for the rest of the world tick, so the many fluid updates of a
+ * lake or spill that run in the same tick share their block lookups. Cached blocks are dropped when
+ * the fluid changes a block or one of its blocks is notified of a neighbour change, and everything is
+ * dropped when the world time advances.
+ *
+ * All state is per thread, so worlds ticked on different threads do not interfere.
+ */
+public class FluidFlowEngine
+{
+    // Farthest block looked at: the neighbour of the fluid block and up to four more steps from there
+    private static final int RADIUS = 5;
+    private static final int SIZE = RADIUS * 2 + 1;
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_CACHED = 1 << 16;
+
+    // Bits of a cell, the KNOWN bits mark which of the values were read already
+    private static final int PASS_KNOWN = 1;
+    private static final int PASS = 2;
+    private static final int DROP_KNOWN = 4;
+    private static final int DROP = 8;
+
+    private static final int[] OFFSET_X = { -1, 1,  0, 0 };
+    private static final int[] OFFSET_Z = {  0, 0, -1, 1 };
+
+    private final BlockFluidClassic block;
+    private final ThreadLocal<State> state = new ThreadLocal<State>()
+    {
+        @Override
+        protected State initialValue()
+        {
+            return new State();
+        }
+    };
+
+    public FluidFlowEngine(BlockFluidClassic block)
+    {
+        this.block = block;
+    }
+
+    private static class State
+    {
+        private WeakReference<World> world = new WeakReference<World>(null);
+        private long time;
+        private OpenLongHashMap cells = new OpenLongHashMap();
+        private final byte[] buffer = new byte[SIZE * SIZE];
+
+        // Position of the search currently using the buffer
+        private World current;
+        private int x;
+        private int y;
+        private int z;
+    }
+
+    private static long key(int x, int y, int z)
+    {
+        return ((long)x & 0x3FFFFFF) << 38 | ((long)z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    private State getState(World world)
+    {
+        State s = state.get();
+        long time = world.getTotalWorldTime();
+        if (s.world.get() != world || s.time != time || s.cells.getNumHashElements() > MAX_CACHED)
+        {
+            s.world = new WeakReference<World>(world);
+            s.time = time;
+            s.cells = new OpenLongHashMap();
+        }
+        return s;
+    }
+
+    /**
+     * Finds the directions with the shortest path to a drop, same as the recursive search the fluid
+     * used to do. Sides are ordered -x, +x, -z, +z.
+     *
+     * @return bit 1 << side is set for every optimal side
+     */
+    public int getOptimalFlowDirections(World world, int x, int y, int z)
+    {
+        State s = getState(world);
+        Arrays.fill(s.buffer, (byte)0);
+        s.current = world;
+        s.x = x;
+        s.y = y;
+        s.z = z;
+
+        int[] cost = new int[4];
+        int min = Integer.MAX_VALUE;
+        try
+        {
+            for (int side = 0; side < 4; side++)
+            {
+                int dx = OFFSET_X[side];
+                int dz = OFFSET_Z[side];
+                if (!is(s, dx, dz, PASS_KNOWN, PASS))
+                {
+                    cost[side] = 1000;
+                }
+                else if (is(s, dx, dz, DROP_KNOWN, DROP))
+                {
+                    cost[side] = 0;
+                }
+                else
+                {
+                    cost[side] = calculateFlowCost(s, dx, dz, 1, side);
+                }
+                min = Math.min(min, cost[side]);
+            }
+        }
+        finally
+        {
+            s.current = null;
+        }
+
+        int ret = 0;
+        for (int side = 0; side < 4; side++)
+        {
+            if (cost[side] == min)
+            {
+                ret |= 1 << side;
+            }
+        }
+        return ret;
+    }
+
+    private int calculateFlowCost(State s, int dx, int dz, int depth, int side)
+    {
+        int cost = 1000;
+        for (int adjSide = 0; adjSide < 4; adjSide++)
+        {
+            // Don't go back where we came from
+            if (adjSide == (side ^ 1))
+            {
+                continue;
+            }
+
+            int dx2 = dx + OFFSET_X[adjSide];
+            int dz2 = dz + OFFSET_Z[adjSide];
+            if (!is(s, dx2, dz2, PASS_KNOWN, PASS))
+            {
+                continue;
+            }
+
+            if (is(s, dx2, dz2, DROP_KNOWN, DROP))
+            {
+                return depth;
+            }
+
+            if (depth >= MAX_DEPTH)
+            {
+                continue;
+            }
+
+            cost = Math.min(cost, calculateFlowCost(s, dx2, dz2, depth + 1, adjSide));
+        }
+        return cost;
+    }
+
+    /**
+     * Reads one value of a cell relative to the search origin, from the buffer, the tick cache or the world.
+     */
+    private boolean is(State s, int dx, int dz, int known, int bit)
+    {
+        int index = (dx + RADIUS) * SIZE + dz + RADIUS;
+        int cell = s.buffer[index];
+        if ((cell & known) == 0)
+        {
+            int x = s.x + dx;
+            int z = s.z + dz;
+            long key = key(x, s.y, z);
+            Object cached = s.cells.getValueByKey(key);
+            int shared = cached == null ? 0 : (Byte)cached;
+            if ((shared & known) == 0)
+            {
+                shared |= known | (read(s.current, x, s.y, z, known) ? bit : 0);
+                s.cells.add(key, Byte.valueOf((byte)shared));
+            }
+            cell = shared;
+            s.buffer[index] = (byte)cell;
+        }
+        return (cell & bit) != 0;
+    }
+
+    private boolean read(World world, int x, int y, int z, int known)
+    {
+        if (known == PASS_KNOWN)
+        {
+            return block.canFlowInto(world, x, y, z) && !block.isSourceBlock(world, x, y, z);
+        }
+        return block.canFlowInto(world, x, y + block.densityDir, z);
+    }
+
+    /**
+     * Drops what was cached about the given block position, called when the block there changed.
+     */
+    public void invalidate(World world, int x, int y, int z)
+    {
+        State s = state.get();
+        if (s.world.get() != world)
+        {
+            return;
+        }
+        s.cells.remove(key(x, y, z));
+        // The drop of the block on the other side of the fluid's flow direction depends on this one
+        s.cells.remove(key(x, y - block.densityDir, z));
+    }
+
+    /**
+     * Drops what was cached about the given block position and its neighbours, called when the
+     * fluid there is notified of a neighbour change.
+     */
+    public void invalidateAround(World world, int x, int y, int z)
+    {
+        invalidate(world, x, y, z);
+        invalidate(world, x - 1, y, z);
+        invalidate(world, x + 1, y, z);
+        invalidate(world, x, y - 1, z);
+        invalidate(world, x, y + 1, z);
+        invalidate(world, x, y, z - 1);
+        invalidate(world, x, y, z + 1);
+    }
+}
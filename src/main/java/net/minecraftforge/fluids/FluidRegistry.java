@@ -47,6 +47,8 @@ public abstract class FluidRegistry
     static BiMap<String,Fluid> masterFluidReference = HashBiMap.create();
     static BiMap<String,String> defaultFluidName = HashBiMap.create();
     static Map<Fluid,FluidDelegate> delegates = Maps.newHashMap();
+    // Bumped whenever the fluid ids are replaced, lets FluidStack cache the id of its fluid
+    static volatile int idGeneration = 1;
 
     public static final Fluid WATER = new Fluid("water") {
         @Override
@@ -124,6 +126,7 @@ public abstract class FluidRegistry
         {
             fd.rebind();
         }
+        idGeneration++;
     }
 
     /**
@@ -27,6 +27,8 @@ public class FluidStack
     public int amount;
     public NBTTagCompound tag;
     private RegistryDelegate<Fluid> fluidDelegate;
+    // FluidRegistry.idGeneration in the upper and the fluid id in the lower half, 0 if not looked up yet
+    private long cachedFluidID;
 
     public FluidStack(Fluid fluid, int amount)
     {
@@ -118,7 +120,15 @@ public class FluidStack
 
     public final int getFluidID()
     {
-    	return FluidRegistry.getFluidID(getFluid());
+        int generation = FluidRegistry.idGeneration;
+        long cached = cachedFluidID;
+        if ((int)(cached >>> 32) == generation)
+        {
+            return (int)cached;
+        }
+        int id = FluidRegistry.getFluidID(getFluid());
+        cachedFluidID = (long)generation << 32 | (id & 0xFFFFFFFFL);
+        return id;
     }
 
     public String getLocalizedName()
@@ -148,12 +158,21 @@ public class FluidStack
      */
     public boolean isFluidEqual(FluidStack other)
     {
-        return other != null && getFluid() == other.getFluid() && isFluidStackTagEqual(other);
+        return other != null && (other == this || getFluid() == other.getFluid() && isFluidStackTagEqual(other));
     }
 
     private boolean isFluidStackTagEqual(FluidStack other)
     {
-        return tag == null ? other.tag == null : other.tag == null ? false : tag.equals(other.tag);
+        if (tag == other.tag)
+        {
+            return true;
+        }
+        if (tag == null || other.tag == null)
+        {
+            return false;
+        }
+        // Mods change tags in place, so the hash can not be cached to reject early
+        return tag.equals(other.tag);
     }
 
     /**
@@ -1,6 +1,8 @@
 
 package net.minecraftforge.fluids;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 
@@ -16,6 +18,9 @@ public class FluidTank implements IFluidTank
     protected int capacity;
     protected TileEntity tile;
 
+    // Tank classes that override fill or drain, the amount-only overloads have to go through them
+    private static final ConcurrentHashMap<Class<?>, Boolean> customized = new ConcurrentHashMap<Class<?>, Boolean>();
+
     public FluidTank(int capacity)
     {
         this(null, capacity);
@@ -98,6 +103,30 @@ public class FluidTank implements IFluidTank
         return new FluidTankInfo(this);
     }
 
+    private boolean isCustomized()
+    {
+        Class<?> cls = getClass();
+        if (cls == FluidTank.class)
+        {
+            return false;
+        }
+        Boolean ret = customized.get(cls);
+        if (ret == null)
+        {
+            try
+            {
+                ret = cls.getMethod("fill", FluidStack.class, boolean.class).getDeclaringClass() != FluidTank.class ||
+                      cls.getMethod("drain", int.class, boolean.class).getDeclaringClass() != FluidTank.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                ret = true;
+            }
+            customized.put(cls, ret);
+        }
+        return ret;
+    }
+
     @Override
     public int fill(FluidStack resource, boolean doFill)
     {
@@ -105,12 +134,30 @@ public class FluidTank implements IFluidTank
         {
             return 0;
         }
+        return fillAmount(resource, resource.amount, doFill);
+    }
+
+    @Override
+    public int fill(FluidStack resource, int amount, boolean doFill)
+    {
+        if (isCustomized())
+        {
+            return IFluidTank.super.fill(resource, amount, doFill);
+        }
+        if (resource == null)
+        {
+            return 0;
+        }
+        return fillAmount(resource, amount, doFill);
+    }
 
+    private int fillAmount(FluidStack resource, int amount, boolean doFill)
+    {
         if (!doFill)
         {
             if (fluid == null)
             {
-                return Math.min(capacity, resource.amount);
+                return Math.min(capacity, amount);
             }
 
             if (!fluid.isFluidEqual(resource))
@@ -118,12 +165,12 @@ public class FluidTank implements IFluidTank
                 return 0;
             }
 
-            return Math.min(capacity - fluid.amount, resource.amount);
+            return Math.min(capacity - fluid.amount, amount);
         }
 
         if (fluid == null)
         {
-            fluid = new FluidStack(resource, Math.min(capacity, resource.amount));
+            fluid = new FluidStack(resource, Math.min(capacity, amount));
 
             if (tile != null)
             {
@@ -138,10 +185,10 @@ public class FluidTank implements IFluidTank
         }
         int filled = capacity - fluid.amount;
 
-        if (resource.amount < filled)
+        if (amount < filled)
         {
-            fluid.amount += resource.amount;
-            filled = resource.amount;
+            fluid.amount += amount;
+            filled = amount;
         }
         else
         {
@@ -163,13 +210,33 @@ public class FluidTank implements IFluidTank
             return null;
         }
 
+        FluidStack stack = new FluidStack(fluid, Math.min(fluid.amount, maxDrain));
+        drainFluid(maxDrain, doDrain);
+        return stack;
+    }
+
+    @Override
+    public int drainAmount(int maxDrain, boolean doDrain)
+    {
+        if (isCustomized())
+        {
+            return IFluidTank.super.drainAmount(maxDrain, doDrain);
+        }
+        if (fluid == null)
+        {
+            return 0;
+        }
+        return drainFluid(maxDrain, doDrain);
+    }
+
+    private int drainFluid(int maxDrain, boolean doDrain)
+    {
         int drained = maxDrain;
         if (fluid.amount < drained)
         {
             drained = fluid.amount;
         }
 
-        FluidStack stack = new FluidStack(fluid, drained);
         if (doDrain)
         {
             fluid.amount -= drained;
@@ -183,6 +250,6 @@ public class FluidTank implements IFluidTank
                 FluidEvent.fireEvent(new FluidEvent.FluidDrainingEvent(fluid, tile.getWorldObj(), tile.xCoord, tile.yCoord, tile.zCoord, this, drained));
             }
         }
-        return stack;
+        return drained;
     }
 }
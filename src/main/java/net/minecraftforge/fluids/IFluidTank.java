@@ -54,4 +54,36 @@ public interface IFluidTank
      * @return Amount of fluid that was removed from the tank.
      */
     FluidStack drain(int maxDrain, boolean doDrain);
+
+    /**
+     * Fills the tank with part of a FluidStack, without needing a stack of that size.
+     * 
+     * @param resource
+     *            FluidStack whose fluid should fill the tank, its amount is ignored.
+     * @param amount
+     *            Amount of fluid to fill.
+     * @param doFill
+     *            If false, the fill will only be simulated.
+     * @return Amount of fluid that was accepted by the tank.
+     */
+    default int fill(FluidStack resource, int amount, boolean doFill)
+    {
+        return resource == null ? 0 : fill(new FluidStack(resource, amount), doFill);
+    }
+
+    /**
+     * Drains the tank without returning a new FluidStack, the drained fluid is the one of
+     * {@link #getFluid()} before the call.
+     * 
+     * @param maxDrain
+     *            Maximum amount of fluid to be removed from the container.
+     * @param doDrain
+     *            If false, the drain will only be simulated.
+     * @return Amount of fluid that was removed from the tank.
+     */
+    default int drainAmount(int maxDrain, boolean doDrain)
+    {
+        FluidStack drained = drain(maxDrain, doDrain);
+        return drained == null ? 0 : drained.amount;
+    }
 }
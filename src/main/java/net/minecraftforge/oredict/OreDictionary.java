@@ -58,7 +58,10 @@ public class OreDictionary {
   private final String name;
   //custom set ids only, by default use hashCode
   private final Integer id;
-  private final Set<ItemStack> stacks = new NonBlockingHashSet<>();
+  //registered stacks by their item stack hash
+  private final Map<Integer, ItemStack> stacks = new NonBlockingHashMap<>();
+  //immutable snapshot of the stacks handed out by getStacks, dropped whenever the stacks change
+  private volatile ArrayList<ItemStack> view;
 
   public OreDictionaryEntry(final String name) {
    this.name = name;
@@ -93,34 +96,261 @@ public class OreDictionary {
    return hashCode();
   }
 
+  /**The registered stacks. The list is shared until the entry changes and does not see later changes.
+   * add, addAll and remove of a stack write through to the entry like registerOre and removeStack do,
+   * every other modification is unsupported.
+   */
   public ArrayList<ItemStack> getStacks() {
-   return new SpecialArrayList<>(stacks);
+   ArrayList<ItemStack> ret = view;
+   if (ret == null) {
+    synchronized (this) {
+     ret = view;
+     if (ret == null) {
+      view = ret = new StackView(this, new ArrayList<>(stacks.values()));
+     }
+    }
+   }
+   return ret;
   }
 
   public void addStack(final ItemStack stack) {
-   if (stacks.add(stack.copy())) {
-    final int hash = getItemStackHash(stack);
-    Set<OreDictionaryEntry> entries = stackHashLookup.get(hash);
+   if (putStack(stack)) {
+    updateOreIdIndex(Collections.singleton(stack.getItem()));
+   }
+  }
+
+  /**Adds a copy of the stack unless a stack with the same item and damage is registered already.
+   * Does not update the ore id index.
+   */
+  private boolean putStack(final ItemStack stack) {
+   final int hash = getItemStackHash(stack);
+   synchronized (this) {
+    if (stacks.containsKey(hash)) {
+     return false;
+    }
+    stacks.put(hash, stack.copy());
+    view = null;
+   }
+   indexStack(hash);
+   return true;
+  }
+
+  private void indexStack(final int hash) {
+   Set<OreDictionaryEntry> entries = stackHashLookup.get(hash);
+   if (entries == null) {
+    final Set<OreDictionaryEntry> created = new NonBlockingHashSet<>();
+    entries = stackHashLookup.putIfAbsent(hash, created);
     if (entries == null) {
-     entries = new NonBlockingHashSet<>();
-     stackHashLookup.put(hash, entries);
+     entries = created;
     }
-    entries.add(this);
    }
+   entries.add(this);
   }
 
   public void removeStack(final ItemStack stack) {
+   if (takeStack(stack) != null) {
+    updateOreIdIndex(Collections.singleton(stack.getItem()));
+   }
+  }
+
+  /**Removes the stack with the same item and damage. Does not update the ore id index.
+   *
+   * @return The removed stack, or null if none was registered
+   */
+  private ItemStack takeStack(final ItemStack stack) {
    final int hash = getItemStackHash(stack);
-   final Optional<ItemStack> toRemove = stacks
-    .parallelStream()
-    .filter(s -> getItemStackHash(s) == hash)
-    .findAny();
+   final ItemStack removed;
+   synchronized (this) {
+    removed = stacks.remove(hash);
+    if (removed == null) {
+     return null;
+    }
+    view = null;
+   }
    //Remove associations
-   if (toRemove.isPresent()) {
-    stacks.remove(toRemove.get());
-    stackHashLookup.get(hash).remove(this);
+   final Set<OreDictionaryEntry> entries = stackHashLookup.get(hash);
+   if (entries != null) {
+    entries.remove(this);
+   }
+   return removed;
+  }
+
+  //Snapshot of the stacks that hands additions and removals to its entry, as the lists returned
+  //by getOres could be added to before
+  private static final class StackView extends UnmodifiableArrayList<ItemStack> {
+   private final OreDictionaryEntry entry;
+
+   StackView(final OreDictionaryEntry entry, final ArrayList<ItemStack> stacks) {
+    super(stacks);
+    this.entry = entry;
+   }
+
+   @Override
+   public boolean add(final ItemStack stack) {
+    registerOreImpl(entry.name, stack);
+    return true;
+   }
+
+   @Override
+   public boolean addAll(final Collection<? extends ItemStack> coll) {
+    for (final ItemStack stack : coll) {
+     registerOreImpl(entry.name, stack);
+    }
+    return !coll.isEmpty();
+   }
+
+   @Override
+   public boolean remove(final Object o) {
+    if (!(o instanceof ItemStack) || ((ItemStack) o).getItem() == null) {
+     return false;
+    }
+    final ItemStack stack = (ItemStack) o;
+    if (entry.takeStack(stack) == null) {
+     return false;
+    }
+    updateOreIdIndex(Collections.singleton(stack.getItem()));
+    return true;
+   }
+  }
+
+  /**Re-keys the stacks after the numeric item ids changed.
+   */
+  private synchronized void rehash() {
+   final List<ItemStack> all = new ArrayList<>(stacks.values());
+   stacks.clear();
+   for (final ItemStack stack : all) {
+    stacks.put(getItemStackHash(stack), stack);
+   }
+   view = null;
+  }
+ }
+
+ //Frozen ore id index: numeric item id -> damage + 1 -> ore ids, slot 0 holds the ids registered for the wildcard
+ //damage and every other slot already includes them. Null until built by rebakeMap, rows are then replaced
+ //copy-on-write whenever an ore of that item is registered or removed.
+ private static volatile int[][][] oreIdIndex = null;
+ private static final Object oreIdIndexLock = new Object();
+ private static final int[] NO_IDS = new int[0];
+
+ /**Rebuilds the stack lookups from the registered entries, needed whenever the numeric item ids change.
+  * Called by Forge once loading is complete and after every id remapping.
+  */
+ public static void rebakeMap() {
+  synchronized (oreIdIndexLock) {
+   OreDictionaryEntry.stackHashLookup.clear();
+   for (final OreDictionaryEntry entry : OreDictionaryEntry.idLookup.values()) {
+    entry.rehash();
+    for (final int hash : entry.stacks.keySet()) {
+     entry.indexStack(hash);
+    }
+   }
+   final Map<Item, Map<Integer, Set<Integer>>> items = collectOreIds(null);
+   int maxId = 0;
+   for (final Item item : items.keySet()) {
+    maxId = Math.max(maxId, Item.getIdFromItem(item));
+   }
+   final int[][][] index = new int[maxId + 1][][];
+   for (final Map.Entry<Item, Map<Integer, Set<Integer>>> item : items.entrySet()) {
+    final int id = Item.getIdFromItem(item.getKey());
+    if (id >= 0) {
+     index[id] = buildOreIdRow(item.getValue());
+    }
+   }
+   oreIdIndex = index;
+  }
+ }
+
+ /**Rebuilds the index rows of the given items and publishes them with a single swap of the index.
+  */
+ private static void updateOreIdIndex(final Collection<Item> items) {
+  //The ore recipes accept every stack of their ores, registered or removed ones change their inputs
+  RecipeIndex.invalidate();
+  if (oreIdIndex == null || items.isEmpty()) {
+   return;
+  }
+  synchronized (oreIdIndexLock) {
+   int maxId = oreIdIndex.length - 1;
+   for (final Item item : items) {
+    maxId = Math.max(maxId, Item.getIdFromItem(item));
+   }
+   final int[][][] index = Arrays.copyOf(oreIdIndex, maxId + 1);
+   final Set<Item> filter = Collections.newSetFromMap(new IdentityHashMap<>());
+   filter.addAll(items);
+   final Map<Item, Map<Integer, Set<Integer>>> byItem = collectOreIds(filter);
+   for (final Item item : filter) {
+    final int id = Item.getIdFromItem(item);
+    if (id >= 0) {
+     final Map<Integer, Set<Integer>> byDamage = byItem.get(item);
+     index[id] = byDamage == null ? null : buildOreIdRow(byDamage);
+    }
+   }
+   oreIdIndex = index;
+  }
+ }
+
+ /**Groups the ore ids of all registered stacks by item and damage, optionally only for the given items.
+  */
+ private static Map<Item, Map<Integer, Set<Integer>>> collectOreIds(final Set<Item> filter) {
+  final Map<Item, Map<Integer, Set<Integer>>> ret = new IdentityHashMap<>();
+  for (final OreDictionaryEntry entry : OreDictionaryEntry.idLookup.values()) {
+   for (final ItemStack stack : entry.stacks.values()) {
+    final Item item = stack.getItem();
+    if (item == null || (filter != null && !filter.contains(item)) || stack.getItemDamage() < 0) {
+     continue;
+    }
+    Map<Integer, Set<Integer>> byDamage = ret.get(item);
+    if (byDamage == null) {
+     ret.put(item, byDamage = new HashMap<>());
+    }
+    Set<Integer> ids = byDamage.get(stack.getItemDamage());
+    if (ids == null) {
+     byDamage.put(stack.getItemDamage(), ids = new LinkedHashSet<>());
+    }
+    ids.add(entry.getId());
+   }
+  }
+  return ret;
+ }
+
+ /**Builds the index row of one item from its ore ids by damage.
+  */
+ private static int[][] buildOreIdRow(final Map<Integer, Set<Integer>> byDamage) {
+  final Set<Integer> wildcard = byDamage.containsKey(WILDCARD_VALUE) ? byDamage.get(WILDCARD_VALUE) : Collections.<Integer>emptySet();
+  int maxDamage = -1;
+  for (final int damage : byDamage.keySet()) {
+   if (damage != WILDCARD_VALUE) {
+    maxDamage = Math.max(maxDamage, damage);
+   }
+  }
+  final int[][] row = new int[maxDamage + 2][];
+  row[0] = ArrayUtils.toPrimitive(wildcard.toArray(new Integer[0]));
+  for (final Map.Entry<Integer, Set<Integer>> damage : byDamage.entrySet()) {
+   if (damage.getKey() != WILDCARD_VALUE) {
+    final Set<Integer> ids = new LinkedHashSet<>(damage.getValue());
+    ids.addAll(wildcard);
+    row[damage.getKey() + 1] = ArrayUtils.toPrimitive(ids.toArray(new Integer[0]));
    }
   }
+  return row;
+ }
+
+ /**Looks up the ore ids of the stack in the frozen index.
+  *
+  * @return The shared id array, or null if the index has not been built yet
+  */
+ private static int[] lookupOreIds(final ItemStack stack) {
+  final int[][][] index = oreIdIndex;
+  if (index == null) {
+   return null;
+  }
+  final int id = Item.getIdFromItem(stack.getItem());
+  final int[][] row = id >= 0 && id < index.length ? index[id] : null;
+  if (row == null) {
+   return NO_IDS;
+  }
+  final int slot = stack.getItemDamage() + 1;
+  final int[] ids = slot > 0 && slot < row.length ? row[slot] : null;
+  return ids != null ? ids : row[0];
  }
 
  /**Minecraft changed from -1 to Short.MAX_VALUE in 1.5 release for the "block wildcard". Use this in case it changes
@@ -419,6 +649,10 @@ public class OreDictionary {
   if (stack == null || stack.getItem() == null) {
    return -1;
   }
+  final int[] ids = lookupOreIds(stack);
+  if (ids != null) {
+   return ids.length > 0 ? ids[0] : -1;
+  }
   final int hash = getItemStackHash(stack);
 //  return entries
 //   .parallelStream()
@@ -451,6 +685,10 @@ public class OreDictionary {
   if (stack == null || stack.getItem() == null) {
    return new int[0];
   }
+  final int[] ids = lookupOreIds(stack);
+  if (ids != null) {
+   return ids.clone();
+  }
   final int hash = getItemStackHash(stack);
 //  return ArrayUtils.toPrimitive(entries
 //   .parallelStream()
@@ -475,11 +713,26 @@ public class OreDictionary {
   return new int[0];
  }
 
+ /**Same as getOreIDs, but without copying the result once loading is complete.
+  * The returned array is shared and MUST NOT be modified.
+  *
+  * @param stack The item stack of the ore.
+  * @return An array of ids that this ore is registerd as.
+  */
+ public static int[] getOreIDsView(final ItemStack stack) {
+  if (stack == null || stack.getItem() == null) {
+   return NO_IDS;
+  }
+  final int[] ids = lookupOreIds(stack);
+  return ids != null ? ids : getOreIDs(stack);
+ }
+
  /**Retrieves the ArrayList of items that are registered to this ore type.
   * Creates the list as empty if it did not exist.
   * <p>
-  * The returned List is unmodifiable, but will be updated if a new ore
-  * is registered using registerOre
+  * The returned List is a snapshot shared until the ore type changes. Adding
+  * a stack to it registers the stack like registerOre, the list itself is not
+  * updated, call getOres again to see the change
   *
   * @param name The ore name, directly calls getOreID
   * @return An arrayList containing ItemStacks registered for this ore
@@ -655,6 +908,89 @@ public class OreDictionary {
   removeOreImpl(name, ore);
  }
 
+ /**Registers many ores at once, for example from a modpack script.
+  * Stacks are copied and added to their entries in parallel, one entry per task, and the ore id index is
+  * updated once for all of them. The OreRegisterEvents are posted on the calling thread afterwards.
+  *
+  * @param ores The stacks to register by ore name
+  */
+ public static void registerOres(final Map<String, ? extends Collection<ItemStack>> ores) {
+  final List<Map.Entry<String, ItemStack>> added = ores
+   .entrySet()
+   .parallelStream()
+   .filter(e -> isValidOreName(e.getKey()))
+   .flatMap(e -> {
+    final OreDictionaryEntry entry = findOrCreateEntry(e.getKey());
+    return e
+     .getValue()
+     .stream()
+     .filter(OreDictionary::isValidOre)
+     .map(ItemStack::copy)
+     .filter(entry::putStack)
+     .<Map.Entry<String, ItemStack>>map(stack -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), stack));
+   })
+   .collect(Collectors.toList());
+  warnInvalidOres(ores, "registration");
+  updateOreIdIndex(added.stream().map(e -> e.getValue().getItem()).collect(Collectors.toList()));
+  for (final Map.Entry<String, ItemStack> e : added) {
+   MinecraftForge.EVENT_BUS.post(new OreRegisterEvent(e.getKey(), e.getValue()));
+  }
+ }
+
+ /**Removes many ores at once, the counterpart of registerOres.
+  *
+  * @param ores The stacks to remove by ore name
+  */
+ public static void removeOres(final Map<String, ? extends Collection<ItemStack>> ores) {
+  final List<Item> removed = ores
+   .entrySet()
+   .parallelStream()
+   .filter(e -> isValidOreName(e.getKey()) && findEntry(e.getKey()) != null)
+   .flatMap(e -> {
+    final OreDictionaryEntry entry = findEntry(e.getKey());
+    return e
+     .getValue()
+     .stream()
+     .filter(OreDictionary::isValidOre)
+     .map(entry::takeStack)
+     .filter(Objects::nonNull)
+     .map(ItemStack::getItem);
+   })
+   .collect(Collectors.toList());
+  warnInvalidOres(ores, "removal");
+  updateOreIdIndex(removed);
+ }
+
+ private static boolean isValidOreName(final String name) {
+  return !(name == null || name.isEmpty() || name.equals("Unknown"));
+ }
+
+ private static boolean isValidOre(final ItemStack ore) {
+  return ore != null && ore.getItem() != null && getItemStackHash(ore) != -1;
+ }
+
+ private static void warnInvalidOres(final Map<String, ? extends Collection<ItemStack>> ores, final String action) {
+  final long invalid = ores
+   .values()
+   .stream()
+   .flatMap(Collection::stream)
+   .filter(ore -> !isValidOre(ore))
+   .count();
+  if (invalid > 0) {
+   FMLLog.bigWarning(
+    "%d invalid or unknown items were skipped in a batch Ore Dictionary %s by the mod %s.",
+    invalid,
+    action,
+    Loader.instance().activeModContainer() == null ? "Unknown" : Loader.instance().activeModContainer().getName()
+   );
+  }
+ }
+
+ private static OreDictionaryEntry findOrCreateEntry(final String name) {
+  final OreDictionaryEntry entry = findEntry(name);
+  return entry != null ? entry : new OreDictionaryEntry(name);
+ }
+
  private static void removeOreImpl(final String name, final ItemStack ore) {
   if (ore == null || ore.getItem() == null) {
    FMLLog.bigWarning(
@@ -716,24 +1052,11 @@ public class OreDictionary {
     if (entry == null) {
 //     entries.add((entry = new OreDictionaryEntry(name)));
      entry = new OreDictionaryEntry(name);
-//     entry.stacks.add(ore);
-     entry.addStack(ore);
-    } else {
-//     final boolean contains = entry
-//      .stacks
-//      .parallelStream()
-//      .anyMatch(stack -> getItemStackHash(stack) == hash);
-//     if (contains) {
-//      return;
-//     } else {
-//      entry.stacks.add(ore);
-//     }
-     if (OreDictionaryEntry.stackHashLookup.containsKey(hash)) {
-      return;
-     } else {
-      entry.addStack(ore);
-     }
     }
+    if (!entry.putStack(ore)) {
+     return;
+    }
+    updateOreIdIndex(Collections.singleton(ore.getItem()));
     MinecraftForge.EVENT_BUS.post(new OreRegisterEvent(name, ore));
    }
   }
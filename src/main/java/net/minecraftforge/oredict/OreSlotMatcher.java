@@ -0,0 +1,107 @@
+package net.minecraftforge.oredict;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Precompiled form of an ore list input of an ore recipe, matches a slot with a single lookup instead
+ * of calling {@link OreDictionary#itemMatches} for every stack of the list.
+ *
+ * Only the lists handed out by the ore dictionary are compiled, they never change once created and
+ * registering an ore replaces them. Any other list may be changed by its owner at any time, so it is
+ * still checked stack by stack.
+ */
+class OreSlotMatcher
+{
+    // Marks an item accepted with any damage
+    private static final BitSet ANY = new BitSet(0);
+
+    private final List<ItemStack> source;
+    // Accepted item -> accepted damage values, null if the source list is checked stack by stack
+    private final Map<Item, BitSet> accepted;
+
+    private OreSlotMatcher(List<ItemStack> source, Map<Item, BitSet> accepted)
+    {
+        this.source = source;
+        this.accepted = accepted;
+    }
+
+    static OreSlotMatcher compile(List<ItemStack> ores)
+    {
+        if (!(ores instanceof UnmodifiableArrayList))
+        {
+            return new OreSlotMatcher(ores, null);
+        }
+
+        Map<Item, BitSet> accepted = new IdentityHashMap<Item, BitSet>();
+        for (ItemStack ore : ores)
+        {
+            int damage = ore.getItemDamage();
+            if (ore.getItem() == null || damage < 0)
+            {
+                // Can't be expressed as a damage set, keep the exact comparison
+                return new OreSlotMatcher(ores, null);
+            }
+            BitSet damages = accepted.get(ore.getItem());
+            if (damage == OreDictionary.WILDCARD_VALUE)
+            {
+                accepted.put(ore.getItem(), ANY);
+            }
+            else if (damages != ANY)
+            {
+                if (damages == null)
+                {
+                    accepted.put(ore.getItem(), damages = new BitSet(damage + 1));
+                }
+                damages.set(damage);
+            }
+        }
+        return new OreSlotMatcher(ores, accepted);
+    }
+
+    boolean matches(ItemStack slot)
+    {
+        if (accepted == null)
+        {
+            for (ItemStack ore : source)
+            {
+                if (OreDictionary.itemMatches(ore, slot, false))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (slot == null)
+        {
+            return false;
+        }
+        BitSet damages = accepted.get(slot.getItem());
+        if (damages == null)
+        {
+            return false;
+        }
+        int damage = slot.getItemDamage();
+        return damages == ANY || (damage >= 0 && damages.get(damage));
+    }
+
+    /**
+     * Matches the slot against the ore list input at the given index of a recipe, using the matcher
+     * cached there or compiling a new one if the input was replaced.
+     */
+    static boolean matches(OreSlotMatcher[] cache, int index, List<ItemStack> ores, ItemStack slot)
+    {
+        OreSlotMatcher matcher = cache[index];
+        if (matcher == null || matcher.source != ores)
+        {
+            cache[index] = matcher = compile(ores);
+        }
+        return matcher.matches(slot);
+    }
+}
@@ -0,0 +1,465 @@
+package net.minecraftforge.oredict;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraft.world.World;
+
+/**
+ * Index of the crafting recipes by the items they accept, used by CraftingManager to find the
+ * matching recipe without trying every registered recipe.
+ *
+ * Vanilla and ore dictionary shaped/shapeless recipes can only match a grid if every item in the grid
+ * is one of their inputs, so only the recipes accepting all of the grid's items are tried. Ore
+ * dictionary entries and wildcard damage values are expanded when the index is built. Recipes of any
+ * other class, including subclasses of the above which may match differently, are tried for every grid.
+ * Candidates are tried in recipe list order, so the first matching recipe is the same as vanilla's.
+ *
+ * The recipe list of CraftingManager is a {@link RecipeList}, which counts every change made to it, so
+ * the index is rebuilt after any recipe is added, removed, replaced or moved. Lists of other classes are
+ * compared recipe by recipe instead. The index is also dropped whenever an ore is registered or removed,
+ * as that changes the inputs of the ore recipes. Mods changing the inputs of a recipe in place must call
+ * {@link #invalidate()}.
+ *
+ * The indexed recipe found by the last lookup is remembered per crafting inventory and reused while the
+ * item, damage and NBT of every slot stay the same. Recipes of other classes may depend on anything, so
+ * the ones before the remembered recipe are still tried, and their matches are never remembered.
+ */
+public class RecipeIndex
+{
+    private static volatile RecipeIndex current;
+    private static final Map<InventoryCrafting, LastMatch> lastMatches = Collections.synchronizedMap(new WeakHashMap<InventoryCrafting, LastMatch>());
+    private static final int[] NONE = new int[0];
+
+    private final List<IRecipe> source;
+    // Changes of the source when the index was built, if it is a RecipeList
+    private final int changes;
+    private final IRecipe[] recipes;
+    // Items accepted by each recipe, null for recipes that are tried for every grid
+    private final Set<Item>[] accepted;
+    // Item -> ascending positions of the indexed recipes accepting it
+    private final Map<Item, int[]> byItem = new IdentityHashMap<Item, int[]>();
+    // Ascending positions of the recipes that could not be indexed
+    private final int[] unindexed;
+
+    @SuppressWarnings("unchecked")
+    private RecipeIndex(List<IRecipe> source)
+    {
+        this.source = source;
+        this.changes = source instanceof RecipeList ? ((RecipeList)source).getChanges() : 0;
+        this.recipes = source.toArray(new IRecipe[source.size()]);
+        this.accepted = new Set[recipes.length];
+
+        Map<Item, List<Integer>> positions = new IdentityHashMap<Item, List<Integer>>();
+        List<Integer> other = new ArrayList<Integer>();
+        for (int x = 0; x < recipes.length; x++)
+        {
+            Set<Item> items = getInputItems(recipes[x]);
+            if (items == null)
+            {
+                other.add(x);
+                continue;
+            }
+            accepted[x] = items;
+            for (Item item : items)
+            {
+                List<Integer> list = positions.get(item);
+                if (list == null)
+                {
+                    positions.put(item, list = new ArrayList<Integer>());
+                }
+                list.add(x);
+            }
+        }
+
+        for (Map.Entry<Item, List<Integer>> entry : positions.entrySet())
+        {
+            byItem.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        unindexed = toArray(other);
+    }
+
+    private static int[] toArray(List<Integer> list)
+    {
+        int[] ret = new int[list.size()];
+        for (int x = 0; x < ret.length; x++)
+        {
+            ret[x] = list.get(x);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the items the recipe accepts in any slot, or null if the recipe must be tried for every grid
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<Item> getInputItems(IRecipe recipe)
+    {
+        Class<?> cls = recipe.getClass();
+        Set<Item> ret = Collections.newSetFromMap(new IdentityHashMap<Item, Boolean>());
+        boolean valid;
+        if (cls == ShapedRecipes.class)
+        {
+            valid = addInputs(ret, ((ShapedRecipes)recipe).recipeItems);
+        }
+        else if (cls == ShapelessRecipes.class)
+        {
+            valid = addInputs(ret, ((ShapelessRecipes)recipe).recipeItems.toArray());
+        }
+        else if (cls == ShapedOreRecipe.class)
+        {
+            valid = addInputs(ret, ((ShapedOreRecipe)recipe).getInput());
+        }
+        else if (cls == ShapelessOreRecipe.class)
+        {
+            valid = addInputs(ret, ((ShapelessOreRecipe)recipe).getInput().toArray());
+        }
+        else
+        {
+            return null;
+        }
+        return valid && !ret.isEmpty() ? ret : null;
+    }
+
+    private static boolean addInputs(Set<Item> items, Object[] inputs)
+    {
+        for (Object input : inputs)
+        {
+            if (input == null)
+            {
+                continue;
+            }
+            else if (input instanceof ItemStack)
+            {
+                if (!addInput(items, (ItemStack)input))
+                {
+                    return false;
+                }
+            }
+            else if (input instanceof List)
+            {
+                List<?> ores = (List<?>)input;
+                if (ores.isEmpty())
+                {
+                    return false;
+                }
+                for (Object ore : ores)
+                {
+                    if (!(ore instanceof ItemStack) || !addInput(items, (ItemStack)ore))
+                    {
+                        return false;
+                    }
+                }
+            }
+            else
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean addInput(Set<Item> items, ItemStack stack)
+    {
+        if (stack.getItem() == null)
+        {
+            return false;
+        }
+        items.add(stack.getItem());
+        return true;
+    }
+
+    /**
+     * Rebuilds the index of the given recipe list, called after the recipes are sorted.
+     */
+    public static void rebuild(List<IRecipe> recipes)
+    {
+        current = new RecipeIndex(recipes);
+        lastMatches.clear();
+    }
+
+    /**
+     * Drops the index, it is rebuilt on the next lookup.
+     */
+    public static void invalidate()
+    {
+        current = null;
+        lastMatches.clear();
+    }
+
+    private static RecipeIndex get(List<IRecipe> recipes)
+    {
+        RecipeIndex index = current;
+        if (index == null || !index.isCurrent(recipes))
+        {
+            index = new RecipeIndex(recipes);
+            current = index;
+        }
+        return index;
+    }
+
+    private boolean isCurrent(List<IRecipe> list)
+    {
+        if (list != source)
+        {
+            return false;
+        }
+        if (list instanceof RecipeList)
+        {
+            return ((RecipeList)list).getChanges() == changes;
+        }
+        if (list.size() != recipes.length)
+        {
+            return false;
+        }
+        int x = 0;
+        for (IRecipe recipe : list)
+        {
+            if (recipe != recipes[x++])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first recipe of the list matching the grid, same as looping over the whole list.
+     *
+     * @return the crafting result of the matching recipe, null if none match
+     */
+    public static ItemStack findMatchingRecipe(List<IRecipe> recipes, InventoryCrafting inv, World world)
+    {
+        RecipeIndex index = get(recipes);
+        LastMatch last = lastMatches.get(inv);
+        int pos;
+        if (last != null && last.index == index && last.isSameGrid(inv))
+        {
+            pos = index.findUnindexedBefore(last.pos, inv, world);
+            if (pos < 0)
+            {
+                pos = last.pos;
+            }
+        }
+        else
+        {
+            pos = index.find(inv, world);
+            if (pos >= 0 && index.accepted[pos] != null)
+            {
+                lastMatches.put(inv, new LastMatch(index, inv, pos));
+            }
+            else if (last != null)
+            {
+                lastMatches.remove(inv);
+            }
+        }
+        return pos < 0 ? null : index.recipes[pos].getCraftingResult(inv);
+    }
+
+    /**
+     * @return the position of the first unindexed recipe before the given one matching the grid, or -1
+     */
+    private int findUnindexedBefore(int end, InventoryCrafting inv, World world)
+    {
+        for (int x = 0; x < unindexed.length && unindexed[x] < end; x++)
+        {
+            if (recipes[unindexed[x]].matches(inv, world))
+            {
+                return unindexed[x];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the position of the first recipe matching the grid, or -1
+     */
+    private int find(InventoryCrafting inv, World world)
+    {
+        int[] candidates = null;
+        int size = inv.getSizeInventory();
+        boolean empty = true;
+        for (int x = 0; x < size; x++)
+        {
+            ItemStack stack = inv.getStackInSlot(x);
+            if (stack == null)
+            {
+                continue;
+            }
+            empty = false;
+            int[] list = byItem.get(stack.getItem());
+            if (list == null)
+            {
+                // No indexed recipe accepts this item
+                candidates = NONE;
+                break;
+            }
+            if (candidates == null || list.length < candidates.length)
+            {
+                candidates = list;
+            }
+        }
+        if (empty)
+        {
+            candidates = NONE;
+        }
+
+        // Merge with the unindexed recipes to try everything in list order
+        int a = 0;
+        int b = 0;
+        while (a < candidates.length || b < unindexed.length)
+        {
+            int pos;
+            if (b >= unindexed.length || (a < candidates.length && candidates[a] < unindexed[b]))
+            {
+                pos = candidates[a++];
+                if (!acceptsAll(accepted[pos], inv))
+                {
+                    continue;
+                }
+            }
+            else
+            {
+                pos = unindexed[b++];
+            }
+
+            if (recipes[pos].matches(inv, world))
+            {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean acceptsAll(Set<Item> items, InventoryCrafting inv)
+    {
+        for (int x = 0; x < inv.getSizeInventory(); x++)
+        {
+            ItemStack stack = inv.getStackInSlot(x);
+            if (stack != null && !items.contains(stack.getItem()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class LastMatch
+    {
+        private final RecipeIndex index;
+        private final ItemStack[] grid;
+        // Position of the matching recipe, always an indexed one
+        private final int pos;
+
+        private LastMatch(RecipeIndex index, InventoryCrafting inv, int pos)
+        {
+            this.index = index;
+            this.pos = pos;
+            this.grid = new ItemStack[inv.getSizeInventory()];
+            for (int x = 0; x < grid.length; x++)
+            {
+                ItemStack stack = inv.getStackInSlot(x);
+                grid[x] = stack == null ? null : stack.copy();
+            }
+        }
+
+        private boolean isSameGrid(InventoryCrafting inv)
+        {
+            if (inv.getSizeInventory() != grid.length)
+            {
+                return false;
+            }
+            for (int x = 0; x < grid.length; x++)
+            {
+                ItemStack a = grid[x];
+                ItemStack b = inv.getStackInSlot(x);
+                if (a == null || b == null)
+                {
+                    if (a != b)
+                    {
+                        return false;
+                    }
+                }
+                else if (a.getItem() != b.getItem() || a.getItemDamage() != b.getItemDamage() || !ItemStack.areItemStackTagsEqual(a, b))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The recipe list of CraftingManager, counting every change made to it so the index sees them. Adding,
+     * removing, replacing and sorting recipes, through the list, its iterators or its sub lists, are all
+     * counted.
+     */
+    public static class RecipeList extends AbstractList<IRecipe> implements RandomAccess
+    {
+        private final ArrayList<IRecipe> recipes = new ArrayList<IRecipe>();
+        private volatile int changes;
+
+        public int getChanges()
+        {
+            return changes;
+        }
+
+        @Override
+        public IRecipe get(int index)
+        {
+            return recipes.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return recipes.size();
+        }
+
+        @Override
+        public IRecipe set(int index, IRecipe recipe)
+        {
+            IRecipe ret = recipes.set(index, recipe);
+            changes++;
+            return ret;
+        }
+
+        @Override
+        public void add(int index, IRecipe recipe)
+        {
+            recipes.add(index, recipe);
+            modCount++;
+            changes++;
+        }
+
+        @Override
+        public IRecipe remove(int index)
+        {
+            IRecipe ret = recipes.remove(index);
+            modCount++;
+            changes++;
+            return ret;
+        }
+
+        @Override
+        public void clear()
+        {
+            recipes.clear();
+            modCount++;
+            changes++;
+        }
+    }
+}
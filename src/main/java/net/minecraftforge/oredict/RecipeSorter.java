@@ -144,6 +144,7 @@ public class RecipeSorter implements Comparator<IRecipe>
         FMLLog.fine("Sorting recipies");
         warned.clear();
         Collections.sort(CraftingManager.getInstance().getRecipeList(), INSTANCE);
+        RecipeIndex.rebuild(CraftingManager.getInstance().getRecipeList());
     }
     
     public static void register(String name, Class<?> recipe, Category category, String dependancies)
@@ -2,7 +2,6 @@ package net.minecraftforge.oredict;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -25,6 +24,8 @@ public class ShapedOreRecipe implements IRecipe
     private int width = 0;
     private int height = 0;
     private boolean mirrored = true;
+    // Compiled ore list inputs, by input index
+    private OreSlotMatcher[] matchers;
 
     public ShapedOreRecipe(Block     result, Object... recipe){ this(new ItemStack(result), recipe); }
     public ShapedOreRecipe(Item      result, Object... recipe){ this(new ItemStack(result), recipe); }
@@ -183,6 +184,16 @@ public class ShapedOreRecipe implements IRecipe
         return false;
     }
 
+    private OreSlotMatcher[] getMatchers()
+    {
+        OreSlotMatcher[] ret = matchers;
+        if (ret == null || ret.length != input.length)
+        {
+            matchers = ret = new OreSlotMatcher[input.length];
+        }
+        return ret;
+    }
+
     @SuppressWarnings("unchecked")
     private boolean checkMatch(InventoryCrafting inv, int startX, int startY, boolean mirror)
     {
@@ -193,17 +204,19 @@ public class ShapedOreRecipe implements IRecipe
                 int subX = x - startX;
                 int subY = y - startY;
                 Object target = null;
+                int index = -1;
 
                 if (subX >= 0 && subY >= 0 && subX < width && subY < height)
                 {
                     if (mirror)
                     {
-                        target = input[width - subX - 1 + subY * width];
+                        index = width - subX - 1 + subY * width;
                     }
                     else
                     {
-                        target = input[subX + subY * width];
+                        index = subX + subY * width;
                     }
+                    target = input[index];
                 }
 
                 ItemStack slot = inv.getStackInRowAndColumn(x, y);
@@ -217,15 +230,7 @@ public class ShapedOreRecipe implements IRecipe
                 }
                 else if (target instanceof ArrayList)
                 {
-                    boolean matched = false;
-
-                    Iterator<ItemStack> itr = ((ArrayList<ItemStack>)target).iterator();
-                    while (itr.hasNext() && !matched)
-                    {
-                        matched = OreDictionary.itemMatches(itr.next(), slot, false);
-                    }
-
-                    if (!matched)
+                    if (!OreSlotMatcher.matches(getMatchers(), index, (ArrayList<ItemStack>)target, slot))
                     {
                         return false;
                     }
@@ -1,7 +1,6 @@
 package net.minecraftforge.oredict;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.List;
@@ -18,6 +17,8 @@ public class ShapelessOreRecipe implements IRecipe
 {
     private ItemStack output = null;
     private ArrayList<Object> input = new ArrayList<Object>();
+    // Compiled ore list inputs, by input index
+    private OreSlotMatcher[] matchers;
 
     public ShapelessOreRecipe(Block result, Object... recipe){ this(new ItemStack(result), recipe); }
     public ShapelessOreRecipe(Item  result, Object... recipe){ this(new ItemStack(result), recipe); }
@@ -89,7 +90,10 @@ public class ShapelessOreRecipe implements IRecipe
     @Override
     public boolean matches(InventoryCrafting var1, World world)
     {
-        ArrayList<Object> required = new ArrayList<Object>(input);
+        int size = input.size();
+        boolean[] used = new boolean[size];
+        int remaining = size;
+        OreSlotMatcher[] matchers = getMatchers();
 
         for (int x = 0; x < var1.getSizeInventory(); x++)
         {
@@ -98,13 +102,17 @@ public class ShapelessOreRecipe implements IRecipe
             if (slot != null)
             {
                 boolean inRecipe = false;
-                Iterator<Object> req = required.iterator();
 
-                while (req.hasNext())
+                for (int i = 0; i < size; i++)
                 {
+                    if (used[i])
+                    {
+                        continue;
+                    }
+
                     boolean match = false;
 
-                    Object next = req.next();
+                    Object next = input.get(i);
 
                     if (next instanceof ItemStack)
                     {
@@ -112,17 +120,14 @@ public class ShapelessOreRecipe implements IRecipe
                     }
                     else if (next instanceof ArrayList)
                     {
-                        Iterator<ItemStack> itr = ((ArrayList<ItemStack>)next).iterator();
-                        while (itr.hasNext() && !match)
-                        {
-                            match = OreDictionary.itemMatches(itr.next(), slot, false);
-                        }
+                        match = OreSlotMatcher.matches(matchers, i, (ArrayList<ItemStack>)next, slot);
                     }
 
                     if (match)
                     {
                         inRecipe = true;
-                        required.remove(next);
+                        used[i] = true;
+                        remaining--;
                         break;
                     }
                 }
@@ -134,7 +139,17 @@ public class ShapelessOreRecipe implements IRecipe
             }
         }
 
-        return required.isEmpty();
+        return remaining == 0;
+    }
+
+    private OreSlotMatcher[] getMatchers()
+    {
+        OreSlotMatcher[] ret = matchers;
+        if (ret == null || ret.length != input.size())
+        {
+            matchers = ret = new OreSlotMatcher[input.size()];
+        }
+        return ret;
     }
 
     /**
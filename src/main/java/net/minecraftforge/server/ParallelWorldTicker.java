@@ -0,0 +1,350 @@
+package net.minecraftforge.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+import cpw.mods.fml.common.eventhandler.Event;
+import cpw.mods.fml.common.eventhandler.EventBus;
+import net.minecraft.crash.CrashReport;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.play.server.S03PacketTimeUpdate;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ReportedException;
+import net.minecraft.world.Teleporter;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.ForgeModContainer;
+
+/**
+ * Opt-in parallel ticking of the dimensions of the server, enabled by the parallelDimensionTicking
+ * option of the Forge config.
+ *
+ * Every dimension is ticked on a thread of a fork-join pool: the world tick, the entity and tile entity
+ * updates and the entity tracker. The server thread waits for all of them before it goes on with the
+ * network tick. The time sync packets and the world tick events are still handled on the server thread,
+ * the pre tick events before the dimensions tick and the post tick events once all of them finished.
+ *
+ * Work touching more than one dimension must not run while the dimensions tick. It is handed off with
+ * {@link #handoff(Runnable)} instead, the handed off work runs on the server thread right after the
+ * dimensions ticked, in dimension order and in the order it was handed off. Teleports of players and
+ * entities to other dimensions are handed off this way. Event posts that are not tied to one dimension
+ * can be handed off with {@link #post(EventBus, Event)}.
+ *
+ * Packets to players are sent from the thread of the dimension the player is in, so the packets of a
+ * player keep their order. The player list is only changed on the server thread, dimensions unloading
+ * themselves are queued for the server thread. Entity ids are handed out atomically and the scoreboard is a
+ * {@link SynchronizedServerScoreboard}. The vanilla code keeping scratch state in static fields or in shared
+ * objects runs while holding {@link #SHARED_STATE}: chunk population, which shares the biome decorators and
+ * the fallInstantly flag of falling blocks, the updates of falling blocks, and redstone wire and flowing
+ * liquids, which keep that state in their block.
+ *
+ * That is all this guards, it is an experimental option. Commands run by command blocks are not handed
+ * off, they must not change game rules or players in other dimensions. Everything else mods do while
+ * their blocks, entities and tile entities tick must be safe to run next to other dimensions, so this is
+ * only meant for servers running mods known to be fine with it. Falls back to ticking the dimensions one
+ * by one while the profiler is running.
+ */
+public class ParallelWorldTicker
+{
+    /**
+     * Held by vanilla code sharing scratch state between the dimensions while it uses it. It is the only
+     * lock taken around block updates and chunk population, so they can't deadlock each other. Mods
+     * reusing the shared vanilla generators outside of chunk population should hold it as well.
+     */
+    public static final Object SHARED_STATE = new Object();
+
+    private static final ThreadLocal<WorldTask> current = new ThreadLocal<WorldTask>();
+    private static ForkJoinPool pool;
+
+    public static boolean isEnabled()
+    {
+        return ForgeModContainer.parallelDimensionTicking;
+    }
+
+    /**
+     * @return true if the current thread is ticking a dimension of the pool
+     */
+    public static boolean isWorldThread()
+    {
+        return current.get() != null;
+    }
+
+    /**
+     * @return the dimension the current thread is ticking, or null if it isn't ticking one on the pool
+     */
+    public static WorldServer getTickingWorld()
+    {
+        WorldTask task = current.get();
+        return task == null ? null : task.world;
+    }
+
+    /**
+     * Runs the task on the server thread once all dimensions ticked, or right away if the current thread
+     * is not ticking a dimension on the pool.
+     */
+    public static void handoff(Runnable task)
+    {
+        WorldTask owner = current.get();
+        if (owner == null)
+        {
+            task.run();
+        }
+        else
+        {
+            owner.handoffs.add(task);
+        }
+    }
+
+    /**
+     * Posts the event on the server thread once all dimensions ticked, or right away if the current
+     * thread is not ticking a dimension on the pool. The result of the event is not seen by the caller.
+     */
+    public static void post(final EventBus bus, final Event event)
+    {
+        handoff(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                bus.post(event);
+            }
+        });
+    }
+
+    /**
+     * Hands off the travel of an entity to another dimension if the current thread is ticking a dimension.
+     *
+     * @return true if the travel was handed off and must not be done now
+     */
+    public static boolean deferTravel(final Entity entity, final int dimension)
+    {
+        final WorldTask owner = current.get();
+        if (owner == null)
+        {
+            return false;
+        }
+        owner.handoffs.add(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (!entity.isDead && entity.worldObj == owner.world)
+                {
+                    entity.travelToDimension(dimension);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Hands off the transfer of a player to another dimension if the current thread is ticking a dimension.
+     *
+     * @param teleporter Teleporter to use, or null for the default one of the target dimension
+     * @return true if the transfer was handed off and must not be done now
+     */
+    public static boolean deferTransfer(final EntityPlayerMP player, final int dimension, final Teleporter teleporter)
+    {
+        final WorldTask owner = current.get();
+        if (owner == null)
+        {
+            return false;
+        }
+        owner.handoffs.add(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (player.isDead || player.worldObj != owner.world || player.playerNetServerHandler == null)
+                {
+                    return;
+                }
+                if (teleporter == null)
+                {
+                    player.mcServer.getConfigurationManager().transferPlayerToDimension(player, dimension);
+                }
+                else
+                {
+                    player.mcServer.getConfigurationManager().transferPlayerToDimension(player, dimension, teleporter);
+                }
+            }
+        });
+        return true;
+    }
+
+    private static synchronized ForkJoinPool getPool()
+    {
+        if (pool == null)
+        {
+            int threads = ForgeModContainer.dimensionTickThreads > 0 ? ForgeModContainer.dimensionTickThreads : Runtime.getRuntime().availableProcessors();
+            final AtomicInteger count = new AtomicInteger();
+            pool = new ForkJoinPool(threads, new ForkJoinPool.ForkJoinWorkerThreadFactory()
+            {
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+                {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("Dimension Tick Thread #" + count.incrementAndGet());
+                    return thread;
+                }
+            }, null, false);
+        }
+        return pool;
+    }
+
+    private static class WorldTask implements Runnable
+    {
+        private final WorldServer world;
+        private final List<Runnable> handoffs = new ArrayList<Runnable>();
+        private long nanos;
+
+        private WorldTask(WorldServer world)
+        {
+            this.world = world;
+        }
+
+        @Override
+        public void run()
+        {
+            long start = System.nanoTime();
+            current.set(this);
+            try
+            {
+                tickWorld(world);
+            }
+            finally
+            {
+                current.remove();
+                nanos = System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * Ticks the given dimensions, called from MinecraftServer.updateTimeLightAndEntities in place of
+     * ticking them one by one. Returns once all of them ticked and the handed off work is done.
+     */
+    public static void tickWorlds(MinecraftServer server, Integer[] ids, int tickCounter)
+    {
+        List<WorldTask> tasks = new ArrayList<WorldTask>(ids.length);
+        for (int id : ids)
+        {
+            if (id == 0 || server.getAllowNether())
+            {
+                tasks.add(new WorldTask(DimensionManager.getWorld(id)));
+            }
+        }
+
+        for (WorldTask task : tasks)
+        {
+            if (tickCounter % 20 == 0)
+            {
+                WorldServer world = task.world;
+                server.getConfigurationManager().sendPacketToAllPlayersInDimension(new S03PacketTimeUpdate(world.getTotalWorldTime(), world.getWorldTime(), world.getGameRules().getGameRuleBooleanValue("doDaylightCycle")), world.provider.dimensionId);
+            }
+            FMLCommonHandler.instance().onPreWorldTick(task.world);
+        }
+
+        if (server.theProfiler.profilingEnabled || tasks.size() < 2)
+        {
+            // The profiler is not thread safe, and a single dimension has nothing to run next to
+            for (WorldTask task : tasks)
+            {
+                task.run();
+            }
+        }
+        else
+        {
+            ForkJoinPool pool = getPool();
+            List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+            for (WorldTask task : tasks)
+            {
+                futures.add(pool.submit(task));
+            }
+
+            // Wait for all of them before reporting the first failure, so no dimension is still ticking
+            Throwable failure = null;
+            for (Future<?> future : futures)
+            {
+                try
+                {
+                    future.get();
+                }
+                catch (ExecutionException e)
+                {
+                    if (failure == null)
+                    {
+                        failure = e.getCause();
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    if (failure == null)
+                    {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null)
+            {
+                if (failure instanceof ReportedException)
+                {
+                    throw (ReportedException)failure;
+                }
+                throw new ReportedException(CrashReport.makeCrashReport(failure, "Exception ticking dimensions"));
+            }
+        }
+
+        for (WorldTask task : tasks)
+        {
+            for (int x = 0; x < task.handoffs.size(); x++)
+            {
+                task.handoffs.get(x).run();
+            }
+            task.handoffs.clear();
+        }
+
+        for (WorldTask task : tasks)
+        {
+            FMLCommonHandler.instance().onPostWorldTick(task.world);
+            server.worldTickTimes.get(task.world.provider.dimensionId)[tickCounter % 100] = task.nanos;
+        }
+    }
+
+    private static void tickWorld(WorldServer world)
+    {
+        CrashReport crashreport;
+
+        try
+        {
+            world.tick();
+        }
+        catch (Throwable throwable)
+        {
+            crashreport = CrashReport.makeCrashReport(throwable, "Exception ticking world");
+            world.addWorldInfoToCrashReport(crashreport);
+            throw new ReportedException(crashreport);
+        }
+
+        try
+        {
+            world.updateEntities();
+        }
+        catch (Throwable throwable)
+        {
+            crashreport = CrashReport.makeCrashReport(throwable, "Exception ticking world entities");
+            world.addWorldInfoToCrashReport(crashreport);
+            throw new ReportedException(crashreport);
+        }
+
+        world.getEntityTracker().updateTrackedEntities();
+    }
+}
@@ -0,0 +1,147 @@
+package net.minecraftforge.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.scoreboard.IScoreObjectiveCriteria;
+import net.minecraft.scoreboard.Score;
+import net.minecraft.scoreboard.ScoreObjective;
+import net.minecraft.scoreboard.ScorePlayerTeam;
+import net.minecraft.scoreboard.ServerScoreboard;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * The scoreboard of the server, shared by all dimensions.
+ *
+ * With {@link ParallelWorldTicker} the threads of several dimensions use it at once: scores are created
+ * and changed as players die, kill and earn stats, teams are looked up when players attack each other,
+ * and command blocks run scoreboard commands. Every method reading or changing the objectives, scores
+ * or teams holds this scoreboard, the collections of scores it hands out are copies.
+ */
+public class SynchronizedServerScoreboard extends ServerScoreboard
+{
+    public SynchronizedServerScoreboard(MinecraftServer server)
+    {
+        super(server);
+    }
+
+    // objectives
+
+    @Override
+    public synchronized ScoreObjective getObjective(String name)
+    {
+        return super.getObjective(name);
+    }
+
+    @Override
+    public synchronized ScoreObjective addScoreObjective(String name, IScoreObjectiveCriteria criteria)
+    {
+        return super.addScoreObjective(name, criteria);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public synchronized Collection func_96520_a(IScoreObjectiveCriteria criteria)
+    {
+        return super.func_96520_a(criteria);
+    }
+
+    @Override
+    public synchronized void func_96519_k(ScoreObjective objective)
+    {
+        super.func_96519_k(objective);
+    }
+
+    @Override
+    public synchronized void func_96530_a(int slot, ScoreObjective objective)
+    {
+        super.func_96530_a(slot, objective);
+    }
+
+    // scores
+
+    @Override
+    public synchronized Score func_96529_a(String name, ScoreObjective objective)
+    {
+        return super.func_96529_a(name, objective);
+    }
+
+    @Override
+    public synchronized void func_96536_a(Score score)
+    {
+        super.func_96536_a(score);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public synchronized Collection func_96534_i(ScoreObjective objective)
+    {
+        return super.func_96534_i(objective);
+    }
+
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public synchronized Collection getObjectiveNames()
+    {
+        return new ArrayList(super.getObjectiveNames());
+    }
+
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public synchronized Map func_96510_d(String name)
+    {
+        return new HashMap(super.func_96510_d(name));
+    }
+
+    @Override
+    public synchronized void func_96515_c(String name)
+    {
+        super.func_96515_c(name);
+    }
+
+    // teams
+
+    @Override
+    public synchronized ScorePlayerTeam getTeam(String name)
+    {
+        return super.getTeam(name);
+    }
+
+    @Override
+    public synchronized ScorePlayerTeam createTeam(String name)
+    {
+        return super.createTeam(name);
+    }
+
+    @Override
+    public synchronized void removeTeam(ScorePlayerTeam team)
+    {
+        super.removeTeam(team);
+    }
+
+    @Override
+    public synchronized boolean func_151392_a(String player, String team)
+    {
+        return super.func_151392_a(player, team);
+    }
+
+    @Override
+    public synchronized boolean removePlayerFromTeams(String player)
+    {
+        return super.removePlayerFromTeams(player);
+    }
+
+    @Override
+    public synchronized void removePlayerFromTeam(String player, ScorePlayerTeam team)
+    {
+        super.removePlayerFromTeam(player, team);
+    }
+
+    @Override
+    public synchronized ScorePlayerTeam getPlayersTeam(String player)
+    {
+        return super.getPlayersTeam(player);
+    }
+}
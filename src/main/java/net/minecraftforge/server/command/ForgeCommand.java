@@ -1,13 +1,23 @@
 package net.minecraftforge.server.command;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.text.DecimalFormat;
+import java.util.List;
+
+import cpw.mods.fml.common.eventhandler.EventProfiler;
 import net.minecraft.command.CommandBase;
 import net.minecraft.command.ICommandSender;
 import net.minecraft.command.WrongUsageException;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.ChatComponentTranslation;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.ForgeModContainer;
+import net.minecraftforge.common.chunkio.ChunkIOExecutor;
+import net.minecraftforge.common.chunkio.ChunkIOStats;
+import net.minecraftforge.common.util.TileEntityScheduler;
 import net.minecraftforge.server.ForgeTimeTracker;
 
 public class ForgeCommand extends CommandBase {
@@ -60,6 +70,18 @@ public class ForgeCommand extends CommandBase {
         {
             handleTracking(sender, args);
         }
+        else if ("events".equals(args[0]))
+        {
+            handleEvents(sender, args);
+        }
+        else if ("chunkio".equals(args[0]))
+        {
+            handleChunkIO(sender, args);
+        }
+        else if ("tiles".equals(args[0]))
+        {
+            handleTiles(sender, args);
+        }
         else
         {
             throw new WrongUsageException("commands.forge.usage");
@@ -85,6 +107,123 @@ public class ForgeCommand extends CommandBase {
         }
     }
 
+    private void handleEvents(ICommandSender sender, String[] args)
+    {
+        if (args.length < 2)
+        {
+            throw new WrongUsageException("commands.forge.usage.events");
+        }
+        File dumpFile = getServer().getFile("eventprofile.txt");
+        if ("start".equals(args[1]))
+        {
+            EventProfiler.start();
+            EventProfiler.setDumpFile(dumpFile, ForgeModContainer.eventProfilerDumpInterval);
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.events.started"));
+        }
+        else if ("stop".equals(args[1]))
+        {
+            EventProfiler.stop();
+            EventProfiler.setDumpFile(dumpFile, 0);
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.events.stopped"));
+        }
+        else if ("reset".equals(args[1]))
+        {
+            EventProfiler.reset();
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.events.reset"));
+        }
+        else if ("report".equals(args[1]))
+        {
+            int count = args.length > 2 ? parseIntBounded(sender, args[2], 1, 100) : 10;
+            List<EventProfiler.ListenerStats> stats = EventProfiler.getStats();
+            for (int x = 0; x < count && x < stats.size(); x++)
+            {
+                EventProfiler.ListenerStats entry = stats.get(x);
+                sender.addChatMessage(new ChatComponentTranslation("commands.forge.events.report.entry", timeFormatter.format(entry.getNanos() * 1.0E-6D), entry.getCount(), entry.getOwnerName(), entry.listener));
+            }
+        }
+        else if ("dump".equals(args[1]))
+        {
+            try
+            {
+                EventProfiler.dump(dumpFile);
+                sender.addChatMessage(new ChatComponentTranslation("commands.forge.events.dumped", dumpFile.getPath()));
+            }
+            catch (IOException e)
+            {
+                sender.addChatMessage(new ChatComponentTranslation("commands.forge.events.dumpfailed", dumpFile.getPath()));
+            }
+        }
+        else
+        {
+            throw new WrongUsageException("commands.forge.usage.events");
+        }
+    }
+
+    private void handleChunkIO(ICommandSender sender, String[] args)
+    {
+        if (args.length > 1 && "reset".equals(args[1]))
+        {
+            ChunkIOStats.resetAll();
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.reset"));
+            return;
+        }
+        else if (args.length > 1)
+        {
+            throw new WrongUsageException("commands.forge.usage.chunkio");
+        }
+        sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.summary", ChunkIOExecutor.getQueueSize(), ChunkIOExecutor.getActiveThreads(), timeFormatter.format(ChunkIOExecutor.getAverageStage1Time() * 1.0E-6D)));
+        for (ChunkIOStats stats : ChunkIOStats.getAll())
+        {
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.dim", stats.dimension, stats.getLoads(), stats.getSyncLoads()));
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.entry", "queue wait", stats.queueWait));
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.entry", "read", stats.read));
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.entry", "decode", stats.decode));
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.entry", "stage 2", stats.stage2));
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.chunkio.entry", "sync load", stats.syncLoad));
+        }
+    }
+
+    private void handleTiles(ICommandSender sender, String[] args)
+    {
+        if (args.length < 2)
+        {
+            throw new WrongUsageException("commands.forge.usage.tiles");
+        }
+        if ("start".equals(args[1]))
+        {
+            TileEntityScheduler.startProfiling();
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.tiles.started"));
+        }
+        else if ("stop".equals(args[1]))
+        {
+            TileEntityScheduler.stopProfiling();
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.tiles.stopped"));
+        }
+        else if ("reset".equals(args[1]))
+        {
+            TileEntityScheduler.resetProfile();
+            sender.addChatMessage(new ChatComponentTranslation("commands.forge.tiles.reset"));
+        }
+        else if ("report".equals(args[1]))
+        {
+            for (WorldServer world : DimensionManager.getWorlds())
+            {
+                sender.addChatMessage(new ChatComponentTranslation("commands.forge.tiles.dim", world.provider.dimensionId, world.loadedTileEntityList.size(), world.tileEntityScheduler.getSleepingCount()));
+            }
+            int count = args.length > 2 ? parseIntBounded(sender, args[2], 1, 100) : 10;
+            List<TileEntityScheduler.ClassStats> stats = TileEntityScheduler.getProfile();
+            for (int x = 0; x < count && x < stats.size(); x++)
+            {
+                TileEntityScheduler.ClassStats entry = stats.get(x);
+                sender.addChatMessage(new ChatComponentTranslation("commands.forge.tiles.report.entry", timeFormatter.format(entry.getNanos() * 1.0E-6D), entry.getCount(), timeFormatter.format(entry.getNanos() * 1.0E-3D / entry.getCount()), entry.type.getName()));
+            }
+        }
+        else
+        {
+            throw new WrongUsageException("commands.forge.usage.tiles");
+        }
+    }
+
     private void doTurnOnTileEntityTracking(ICommandSender sender, int duration)
     {
         ForgeTimeTracker.tileEntityTrackingDuration = duration;
@@ -0,0 +1,148 @@
+package net.minecraftforge.test;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidContainerRegistry;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FluidContainerRegistryTest
+{
+    private static final int LOOKUPS = 1000000;
+
+    private static Fluid oil;
+    private static Fluid fuel;
+    private static Item can;
+    private static Item oilCan;
+    private static Item fuelCan;
+    private static Item cell;
+
+    @BeforeClass
+    public static void register()
+    {
+        oil = new Fluid("fcr_test_oil");
+        fuel = new Fluid("fcr_test_fuel");
+        FluidRegistry.registerFluid(oil);
+        FluidRegistry.registerFluid(fuel);
+
+        can = new Item();
+        oilCan = new Item();
+        fuelCan = new Item();
+        cell = new Item();
+
+        // One empty container filled with two fluids
+        Assert.assertTrue(FluidContainerRegistry.registerFluidContainer(new FluidStack(oil, 500), new ItemStack(oilCan), new ItemStack(can)));
+        Assert.assertTrue(FluidContainerRegistry.registerFluidContainer(new FluidStack(fuel, 250), new ItemStack(fuelCan), new ItemStack(can)));
+
+        // Several filled damage values of one item, registered out of order
+        for (int damage : new int[]{ 5, 1, 3 })
+        {
+            Assert.assertTrue(FluidContainerRegistry.registerFluidContainer(new FluidStack(oil, damage * 100), new ItemStack(cell, 1, damage), new ItemStack(cell, 1, 0)));
+        }
+    }
+
+    @Test
+    public void testFilled()
+    {
+        ItemStack filled = new ItemStack(oilCan);
+        Assert.assertTrue(FluidContainerRegistry.isFilledContainer(filled));
+        Assert.assertTrue(FluidContainerRegistry.isContainer(filled));
+        Assert.assertFalse(FluidContainerRegistry.isEmptyContainer(filled));
+
+        FluidStack contents = FluidContainerRegistry.getFluidForFilledItem(filled);
+        Assert.assertTrue(contents.isFluidStackIdentical(new FluidStack(oil, 500)));
+        // Callers may change the returned stack
+        contents.amount = 1;
+        Assert.assertEquals(500, FluidContainerRegistry.getFluidForFilledItem(filled).amount);
+
+        Assert.assertEquals(500, FluidContainerRegistry.getContainerCapacity(filled));
+        Assert.assertTrue(FluidContainerRegistry.containsFluid(filled, new FluidStack(oil, 500)));
+        Assert.assertFalse(FluidContainerRegistry.containsFluid(filled, new FluidStack(fuel, 1)));
+        Assert.assertTrue(ItemStack.areItemStacksEqual(new ItemStack(can), FluidContainerRegistry.drainFluidContainer(filled)));
+
+        for (int damage : new int[]{ 1, 3, 5 })
+        {
+            ItemStack stack = new ItemStack(cell, 1, damage);
+            Assert.assertTrue(FluidContainerRegistry.isFilledContainer(stack));
+            Assert.assertEquals(damage * 100, FluidContainerRegistry.getContainerCapacity(stack));
+        }
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        ItemStack empty = new ItemStack(can);
+        Assert.assertTrue(FluidContainerRegistry.isEmptyContainer(empty));
+        Assert.assertTrue(FluidContainerRegistry.isContainer(empty));
+        Assert.assertFalse(FluidContainerRegistry.isFilledContainer(empty));
+
+        Assert.assertEquals(0, FluidContainerRegistry.getContainerCapacity(empty));
+        Assert.assertEquals(500, FluidContainerRegistry.getContainerCapacity(new FluidStack(oil, 1), empty));
+        Assert.assertEquals(250, FluidContainerRegistry.getContainerCapacity(new FluidStack(fuel, 1), empty));
+
+        Assert.assertTrue(ItemStack.areItemStacksEqual(new ItemStack(oilCan), FluidContainerRegistry.fillFluidContainer(new FluidStack(oil, 500), empty)));
+        Assert.assertTrue(ItemStack.areItemStacksEqual(new ItemStack(fuelCan), FluidContainerRegistry.fillFluidContainer(new FluidStack(fuel, 1000), empty)));
+        Assert.assertNull("Not enough fluid to fill", FluidContainerRegistry.fillFluidContainer(new FluidStack(oil, 499), empty));
+        Assert.assertNull(FluidContainerRegistry.drainFluidContainer(empty));
+
+        // The empty damage of an item with filled damage values
+        ItemStack emptyCell = new ItemStack(cell, 1, 0);
+        Assert.assertTrue(FluidContainerRegistry.isEmptyContainer(emptyCell));
+        Assert.assertFalse(FluidContainerRegistry.isFilledContainer(emptyCell));
+    }
+
+    @Test
+    public void testMiss()
+    {
+        ItemStack unknown = new ItemStack(new Item());
+        Assert.assertFalse(FluidContainerRegistry.isContainer(unknown));
+        Assert.assertNull(FluidContainerRegistry.getFluidForFilledItem(unknown));
+        Assert.assertNull(FluidContainerRegistry.fillFluidContainer(new FluidStack(oil, 1000), unknown));
+        Assert.assertNull(FluidContainerRegistry.drainFluidContainer(unknown));
+        Assert.assertEquals(0, FluidContainerRegistry.getContainerCapacity(new FluidStack(oil, 1000), unknown));
+
+        // Registered item, unregistered damage values
+        for (int damage : new int[]{ 2, 4, 6 })
+        {
+            Assert.assertFalse(FluidContainerRegistry.isContainer(new ItemStack(cell, 1, damage)));
+        }
+        Assert.assertFalse(FluidContainerRegistry.isContainer(new ItemStack(oilCan, 1, 1)));
+
+        // No registration for this fluid with the empty container
+        Assert.assertNull(FluidContainerRegistry.fillFluidContainer(new FluidStack(fuel, 1000), new ItemStack(cell, 1, 0)));
+
+        Assert.assertFalse(FluidContainerRegistry.isContainer(null));
+        Assert.assertNull(FluidContainerRegistry.fillFluidContainer(null, new ItemStack(can)));
+        Assert.assertFalse("Already registered", FluidContainerRegistry.registerFluidContainer(new FluidStack(fuel, 1000), new ItemStack(oilCan), new ItemStack(can)));
+    }
+
+    @Test
+    public void testTiming()
+    {
+        ItemStack[] stacks = { new ItemStack(oilCan), new ItemStack(can), new ItemStack(cell, 1, 3), new ItemStack(cell, 1, 4), new ItemStack(new Item()) };
+        int hits = 0;
+        // Warm up, then measure
+        for (int pass = 0; pass < 2; pass++)
+        {
+            hits = 0;
+            long start = System.nanoTime();
+            for (int x = 0; x < LOOKUPS; x++)
+            {
+                if (FluidContainerRegistry.isContainer(stacks[x % stacks.length]))
+                {
+                    hits++;
+                }
+            }
+            if (pass == 1)
+            {
+                System.out.println(String.format("FluidContainerRegistry.isContainer: %.1f ns per lookup", (System.nanoTime() - start) / (double)LOOKUPS));
+            }
+        }
+        Assert.assertEquals(LOOKUPS / stacks.length * 3, hits);
+    }
+}
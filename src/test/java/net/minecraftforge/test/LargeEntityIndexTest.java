@@ -0,0 +1,250 @@
+package net.minecraftforge.test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProvider;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.ISaveHandler;
+import net.minecraftforge.common.util.LargeEntityIndex;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import cpw.mods.fml.relauncher.ReflectionHelper;
+
+public class LargeEntityIndexTest
+{
+    private final Set<Long> loadedChunks = new HashSet<Long>();
+    private World world;
+    private LargeEntityIndex index;
+
+    @Before
+    public void setup() throws Exception
+    {
+        world = newWorld();
+        index = new LargeEntityIndex(world);
+    }
+
+    @Test
+    public void testAcrossChunkBorders()
+    {
+        // 30 wide, so it reaches from chunk 0 into chunk 1
+        TestEntity large = spawn(30.0F, 2.0F, 8.0D, 64.0D, 8.0D);
+        index.update(large);
+
+        List<Entity> found = query(null, 20.0D, 64.0D, 8.0D);
+        Assert.assertEquals(1, found.size());
+        Assert.assertSame(large, found.get(0));
+
+        // And from section 4 up into section 6
+        TestEntity tall = spawn(1.0F, 40.0F, 40.5D, 64.0D, 40.5D);
+        index.update(tall);
+        found = query(null, 40.5D, 100.0D, 40.5D);
+        Assert.assertEquals(1, found.size());
+        Assert.assertSame(tall, found.get(0));
+
+        // Nothing outside of the bounding box
+        Assert.assertTrue(query(null, 30.0D, 64.0D, 8.0D).isEmpty());
+    }
+
+    @Test
+    public void testScannedSectionsSkipped()
+    {
+        TestEntity large = spawn(30.0F, 2.0F, 8.0D, 64.0D, 8.0D);
+        index.update(large);
+
+        // Chunk 0 section 4 is scanned by the query itself, the index must not add the entity again
+        Assert.assertTrue(query(null, 9.0D, 64.0D, 8.0D).isEmpty());
+        // Within the scan margin of chunk 0
+        Assert.assertTrue(query(null, 17.0D, 64.0D, 8.0D).isEmpty());
+    }
+
+    @Test
+    public void testSmallEntitiesNotListed()
+    {
+        TestEntity small = spawn(0.6F, 1.8F, 15.9D, 64.0D, 8.0D);
+        index.update(small);
+        Assert.assertTrue(query(null, 16.2D, 64.0D, 8.0D).isEmpty());
+
+        // Growing lists it, shrinking drops it again
+        TestEntity large = spawn(30.0F, 2.0F, 8.0D, 64.0D, 8.0D);
+        index.update(large);
+        Assert.assertEquals(1, query(null, 20.0D, 64.0D, 8.0D).size());
+        large.resize(0.6F, 1.8F);
+        index.update(large);
+        large.resize(30.0F, 2.0F);
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 8.0D).isEmpty());
+    }
+
+    @Test
+    public void testDeadAndUnloadedDropped()
+    {
+        TestEntity dead = spawn(30.0F, 2.0F, 8.0D, 64.0D, 8.0D);
+        TestEntity unloaded = spawn(30.0F, 2.0F, 8.0D, 64.0D, 200.0D);
+        TestEntity moved = spawn(30.0F, 2.0F, 8.0D, 64.0D, 400.0D);
+        index.update(dead);
+        index.update(unloaded);
+        index.update(moved);
+
+        dead.setDead();
+        loadedChunks.remove(ChunkCoordIntPair.chunkXZ2Int(unloaded.chunkCoordX, unloaded.chunkCoordZ));
+        moved.worldObj = null;
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 8.0D).isEmpty());
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 200.0D).isEmpty());
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 400.0D).isEmpty());
+
+        // Dropped for good, until updated again
+        dead.isDead = false;
+        loadedChunks.add(ChunkCoordIntPair.chunkXZ2Int(unloaded.chunkCoordX, unloaded.chunkCoordZ));
+        moved.worldObj = world;
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 8.0D).isEmpty());
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 200.0D).isEmpty());
+        Assert.assertTrue(query(null, 20.0D, 64.0D, 400.0D).isEmpty());
+        index.update(dead);
+        Assert.assertEquals(1, query(null, 20.0D, 64.0D, 8.0D).size());
+    }
+
+    @Test
+    public void testFilters()
+    {
+        TestEntity large = spawn(30.0F, 2.0F, 8.0D, 64.0D, 8.0D);
+        large.parts = new Entity[]{ spawn(0.5F, 0.5F, 20.0D, 64.0D, 8.0D) };
+        index.update(large);
+
+        // All entity queries add the parts, typed queries don't
+        Assert.assertEquals(2, query(null, 20.0D, 64.0D, 8.0D).size());
+        Assert.assertEquals(1, query(TestEntity.class, 20.0D, 64.0D, 8.0D).size());
+        Assert.assertTrue(query(LargeEntityIndexTest.class, 20.0D, 64.0D, 8.0D).isEmpty());
+
+        // Leaving out an entity leaves out its parts, like vanilla
+        List<Entity> out = new ArrayList<Entity>();
+        index.collect(large, null, box(20.0D, 64.0D, 8.0D), null, out);
+        Assert.assertTrue(out.isEmpty());
+        index.collect(large.parts[0], null, box(20.0D, 64.0D, 8.0D), null, out);
+        Assert.assertEquals(1, out.size());
+        Assert.assertSame(large, out.get(0));
+    }
+
+    private List<Entity> query(Class<?> type, double x, double y, double z)
+    {
+        List<Entity> out = new ArrayList<Entity>();
+        index.collect(null, type, box(x, y, z), null, out);
+        return out;
+    }
+
+    private static AxisAlignedBB box(double x, double y, double z)
+    {
+        return AxisAlignedBB.getBoundingBox(x - 0.5D, y - 0.5D, z - 0.5D, x + 0.5D, y + 0.5D, z + 0.5D);
+    }
+
+    private TestEntity spawn(float width, float height, double x, double y, double z)
+    {
+        TestEntity entity = new TestEntity();
+        entity.resize(width, height);
+        entity.setPosition(x, y, z);
+        entity.worldObj = world;
+        entity.addedToChunk = true;
+        entity.chunkCoordX = (int)Math.floor(x / 16.0D);
+        entity.chunkCoordY = (int)Math.floor(y / 16.0D);
+        entity.chunkCoordZ = (int)Math.floor(z / 16.0D);
+        loadedChunks.add(ChunkCoordIntPair.chunkXZ2Int(entity.chunkCoordX, entity.chunkCoordZ));
+        return entity;
+    }
+
+    /**
+     * A world without any of its state, only answering which chunks are loaded.
+     */
+    private World newWorld() throws Exception
+    {
+        Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        World world = (World)unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, TestWorld.class);
+
+        IChunkProvider provider = (IChunkProvider)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ IChunkProvider.class }, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getReturnType() == boolean.class && args != null && args.length == 2)
+                {
+                    return loadedChunks.contains(ChunkCoordIntPair.chunkXZ2Int((Integer)args[0], (Integer)args[1]));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        ReflectionHelper.setPrivateValue(World.class, world, provider, "chunkProvider", "field_73020_y");
+        return world;
+    }
+
+    private static class TestWorld extends World
+    {
+        // Never called, instances are allocated without running any constructor
+        private TestWorld()
+        {
+            super((ISaveHandler)null, (String)null, (WorldSettings)null, (WorldProvider)null, (Profiler)null);
+        }
+
+        @Override
+        protected IChunkProvider createChunkProvider()
+        {
+            return null;
+        }
+
+        @Override
+        public Entity getEntityByID(int id)
+        {
+            return null;
+        }
+
+        @Override
+        protected int func_152379_p()
+        {
+            return 0;
+        }
+    }
+
+    private static class TestEntity extends Entity
+    {
+        private Entity[] parts;
+
+        private TestEntity()
+        {
+            super(null);
+        }
+
+        private void resize(float width, float height)
+        {
+            setSize(width, height);
+            setPosition(posX, posY, posZ);
+        }
+
+        @Override
+        public Entity[] getParts()
+        {
+            return parts;
+        }
+
+        @Override
+        protected void entityInit() {}
+        @Override
+        protected void readEntityFromNBT(NBTTagCompound tag) {}
+        @Override
+        protected void writeEntityToNBT(NBTTagCompound tag) {}
+    }
+}
@@ -0,0 +1,292 @@
+package net.minecraftforge.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.util.ChunkList;
+import net.minecraftforge.common.util.LongHashSet;
+import net.minecraftforge.common.util.OpenLongHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the primitive long collections used for chunk keys against the java.util ones.
+ */
+public class LongCollectionsTest
+{
+    private static final int OPERATIONS = 200000;
+
+    /**
+     * Keys to pick from: 0, neighbouring chunk coordinates and keys colliding in the low bits, which all
+     * land close together in the tables.
+     */
+    private static long[] keys(Random rand)
+    {
+        long[] ret = new long[512];
+        int x = 0;
+        ret[x++] = 0L;
+        ret[x++] = -1L;
+        ret[x++] = Long.MIN_VALUE;
+        ret[x++] = Long.MAX_VALUE;
+        for (int dx = -8; dx < 8; dx++)
+        {
+            for (int dz = -8; dz < 8; dz++)
+            {
+                ret[x++] = ChunkCoordIntPair.chunkXZ2Int(dx, dz);
+            }
+        }
+        while (x < 384)
+        {
+            ret[x++] = (long)rand.nextInt(16) << 40;
+        }
+        while (x < ret.length)
+        {
+            ret[x++] = rand.nextLong();
+        }
+        return ret;
+    }
+
+    @Test
+    public void testLongHashSet()
+    {
+        Random rand = new Random(42);
+        long[] keys = keys(rand);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<Long>();
+
+        for (int x = 0; x < OPERATIONS; x++)
+        {
+            long key = keys[rand.nextInt(keys.length)];
+            switch (rand.nextInt(4))
+            {
+                case 0:
+                case 1:
+                    Assert.assertEquals(expected.add(key), set.add(key));
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.remove(key), set.remove(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.contains(key), set.contains(key));
+            }
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        Assert.assertEquals(expected, new HashSet<Long>(set));
+        Assert.assertEquals(expected, set);
+    }
+
+    @Test
+    public void testLongHashSetDrain()
+    {
+        Random rand = new Random(7);
+        long[] keys = keys(rand);
+        for (int round = 0; round < 5000; round++)
+        {
+            LongHashSet set = new LongHashSet(4);
+            Set<Long> expected = new HashSet<Long>();
+            // Mostly small sets, where removals often move keys around the end of the table
+            int count = rand.nextInt(round % 10 == 0 ? keys.length : 24);
+            for (int x = 0; x < count; x++)
+            {
+                long key = keys[rand.nextInt(keys.length)];
+                set.add(key);
+                expected.add(key);
+            }
+
+            // Remove some while iterating, every key must be seen exactly once
+            Set<Long> before = new HashSet<Long>(expected);
+            Set<Long> seen = new HashSet<Long>();
+            for (Iterator<Long> itr = set.iterator(); itr.hasNext();)
+            {
+                Long key = itr.next();
+                Assert.assertTrue("Returned twice: " + key, seen.add(key));
+                if (rand.nextBoolean())
+                {
+                    itr.remove();
+                    expected.remove(key);
+                }
+            }
+            Assert.assertEquals(before, seen);
+            Assert.assertEquals(expected, new HashSet<Long>(set));
+            for (Long key : expected)
+            {
+                Assert.assertTrue(set.contains(key.longValue()));
+            }
+
+            // Then drain it from the front, like the chunk unload queue
+            while (!set.isEmpty())
+            {
+                Iterator<Long> itr = set.iterator();
+                Long key = itr.next();
+                Assert.assertTrue(expected.remove(key));
+                if (rand.nextBoolean())
+                {
+                    itr.remove();
+                }
+                else
+                {
+                    Assert.assertTrue(set.remove(key.longValue()));
+                }
+                Assert.assertEquals(expected.size(), set.size());
+            }
+            Assert.assertTrue(expected.isEmpty());
+        }
+    }
+
+    @Test
+    public void testLongHashSetBulk()
+    {
+        LongHashSet set = new LongHashSet();
+        for (long x = -50; x < 50; x++)
+        {
+            set.add(x << 32);
+        }
+        Assert.assertTrue(set.removeAll(Arrays.asList(0L, 1L << 32, 99L << 32)));
+        Assert.assertEquals(98, set.size());
+        Assert.assertFalse(set.contains(0L));
+
+        List<Long> keep = new ArrayList<Long>();
+        for (long x = -10; x < 10; x++)
+        {
+            keep.add(x << 32);
+        }
+        Assert.assertTrue(set.retainAll(keep));
+        keep.removeAll(Arrays.asList(0L, 1L << 32));
+        Assert.assertEquals(new HashSet<Long>(keep), new HashSet<Long>(set));
+
+        Iterator<Long> itr = set.iterator();
+        try
+        {
+            itr.remove();
+            Assert.fail("Removed before next()");
+        }
+        catch (IllegalStateException e)
+        {
+            ;
+        }
+    }
+
+    @Test
+    public void testOpenLongHashMap()
+    {
+        Random rand = new Random(1337);
+        long[] keys = keys(rand);
+        OpenLongHashMap map = new OpenLongHashMap(4);
+        Map<Long, Object> expected = new HashMap<Long, Object>();
+
+        for (int x = 0; x < OPERATIONS; x++)
+        {
+            long key = keys[rand.nextInt(keys.length)];
+            switch (rand.nextInt(4))
+            {
+                case 0:
+                case 1:
+                    Object value = Integer.valueOf(x);
+                    expected.put(key, value);
+                    map.add(key, value);
+                    break;
+                case 2:
+                    Assert.assertSame(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.containsKey(key), map.containsItem(key));
+                    Assert.assertSame(expected.get(key), map.getValueByKey(key));
+            }
+            Assert.assertEquals(expected.size(), map.getNumHashElements());
+        }
+        for (long key : keys)
+        {
+            Assert.assertSame(expected.get(key), map.getValueByKey(key));
+        }
+
+        // Adding null removes the key
+        long key = expected.keySet().iterator().next();
+        map.add(key, null);
+        Assert.assertFalse(map.containsItem(key));
+        Assert.assertEquals(expected.size() - 1, map.getNumHashElements());
+
+        map.clear();
+        Assert.assertEquals(0, map.getNumHashElements());
+        Assert.assertNull(map.getValueByKey(0L));
+    }
+
+    @Test
+    public void testChunkList()
+    {
+        Random rand = new Random(99);
+        Chunk[] chunks = new Chunk[256];
+        for (int x = 0; x < chunks.length; x++)
+        {
+            chunks[x] = new Chunk(null, (x % 16) - 8, (x / 16) - 8);
+        }
+        ChunkList list = new ChunkList();
+        Set<Chunk> expected = new HashSet<Chunk>();
+
+        for (int x = 0; x < OPERATIONS / 4; x++)
+        {
+            Chunk chunk = chunks[rand.nextInt(chunks.length)];
+            switch (rand.nextInt(3))
+            {
+                case 0:
+                    if (expected.add(chunk))
+                    {
+                        list.add(chunk);
+                    }
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.remove(chunk), list.remove(chunk));
+                    break;
+                default:
+                    Assert.assertEquals(expected.contains(chunk), list.contains(chunk));
+            }
+            Assert.assertEquals(expected.size(), list.size());
+        }
+        Assert.assertEquals(expected, new HashSet<Chunk>(list));
+        for (int x = 0; x < list.size(); x++)
+        {
+            Assert.assertEquals(x, list.indexOf(list.get(x)));
+        }
+
+        // Draining through the iterator moves the last chunk into the removed slot
+        for (Iterator<Chunk> itr = list.iterator(); itr.hasNext();)
+        {
+            Chunk chunk = itr.next();
+            if (rand.nextBoolean())
+            {
+                itr.remove();
+                expected.remove(chunk);
+                Assert.assertFalse(list.contains(chunk));
+            }
+        }
+        Assert.assertEquals(expected, new HashSet<Chunk>(list));
+        for (Chunk chunk : expected)
+        {
+            Assert.assertTrue(list.contains(chunk));
+        }
+
+        // A second chunk object at the same coordinates, e.g. a reloaded chunk
+        Chunk first = expected.iterator().next();
+        Chunk copy = new Chunk(null, first.xPosition, first.zPosition);
+        Assert.assertFalse(list.contains(copy));
+        list.add(copy);
+        Assert.assertTrue(list.contains(first));
+        Assert.assertTrue(list.contains(copy));
+        Assert.assertTrue(list.remove(first));
+        Assert.assertTrue(list.contains(copy));
+        Assert.assertFalse(list.contains(first));
+
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.contains(copy));
+    }
+}